@@ -0,0 +1,105 @@
+import java.util.Arrays;
+
+/*
+ * The history of one player in a match, stored as one bit per round (0 for
+ * cooperation, 1 for defection) packed into 64-round long words.
+ *
+ * Besides the single-round lookup it answers the questions strategies usually
+ * scan a whole history for: the number of defections so far is kept as a
+ * running count, and range counts use Long.bitCount on whole words.
+ *
+ * Strategies written against int[] histories get an int[] view through
+ * ints(). The view is filled in lazily from the bits, so matches where no
+ * strategy asks for it never pay for it.
+ */
+final class BitHistory {
+    long[] words;
+    int length;
+    int defects;
+
+    // int[] view for selectAction(int, int[], int[], int[]) and how much of it is filled
+    int[] ints;
+    int intsFilled;
+
+    BitHistory(int capacity) {
+        words = new long[(capacity + 63) >>> 6];
+    }
+
+    // Empties the history so that it can be reused for the next match.
+    void clear() {
+        for (int w = 0; w < ((length + 63) >>> 6); w++)
+            words[w] = 0;
+        length = 0;
+        defects = 0;
+        intsFilled = 0;
+    }
+
+    // Records the action played in the next round.
+    void append(int action) {
+        if (length == words.length << 6) {
+            long[] grown = new long[words.length * 2];
+            System.arraycopy(words, 0, grown, 0, words.length);
+            words = grown;
+        }
+        if (action != 0) {
+            words[length >>> 6] |= 1L << length;
+            defects++;
+        }
+        length++;
+    }
+
+    // Number of rounds recorded so far
+    int length() {
+        return length;
+    }
+
+    // Action played in the given round
+    int get(int round) {
+        return (int) (words[round >>> 6] >>> round) & 1;
+    }
+
+    // Number of defections in the whole history, in O(1)
+    int defectCount() {
+        return defects;
+    }
+
+    boolean anyDefect() {
+        return defects != 0;
+    }
+
+    // Number of defections in rounds [from, to)
+    int defectCount(int from, int to) {
+        if (from >= to)
+            return 0;
+        int firstWord = from >>> 6, lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - ((to - 1) & 63));
+        if (firstWord == lastWord)
+            return Long.bitCount(words[firstWord] & firstMask & lastMask);
+        int count = Long.bitCount(words[firstWord] & firstMask);
+        for (int w = firstWord + 1; w < lastWord; w++)
+            count += Long.bitCount(words[w]);
+        return count + Long.bitCount(words[lastWord] & lastMask);
+    }
+
+    // Number of defections in the last k rounds (or fewer, early in the match)
+    int defectsInLast(int k) {
+        return defectCount(Math.max(0, length - k), length);
+    }
+
+    // Whether each of the last k rounds was a defection. False while fewer
+    // than k rounds have been played.
+    boolean defectedInLast(int k) {
+        return k <= length && defectsInLast(k) == k;
+    }
+
+    // The history as an int[] holding 0 and 1. Only the first length()
+    // entries are valid, and the array is reused between calls.
+    int[] ints() {
+        if (ints == null || ints.length < length)
+            ints = ints == null ? new int[words.length << 6] : Arrays.copyOf(ints, words.length << 6);
+        for (; intsFilled < length; intsFilled++)
+            ints[intsFilled] = get(intsFilled);
+        return ints;
+    }
+}
@@ -0,0 +1,147 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * The progress of an experiment sweep, saved so that a sweep interrupted
+ * partway through can resume instead of starting over.
+ *
+ * Every experiment plays on its own random stream, derived from the seed and
+ * the experiment number (Rng.experimentSeed), so the seed and the number of
+ * finished experiments are all the random state there is. Beside those the
+ * file holds the scores and running statistics of the finished experiments
+ * (ScoreMatrix), the ranking statistics (SequentialRanking), and the length
+ * the tournament log had when they were recorded. Experiments after the
+ * checkpoint are simply played again.
+ *
+ * The file is written to a temporary file, forced to disk and renamed over
+ * the previous checkpoint, and the directory is forced after the rename, so
+ * a crash leaves either the old or the new one. A checkpoint that cannot be
+ * read, whether cut short or corrupt, is ignored like one of another sweep.
+ *
+ * Layout, big-endian as written by DataOutputStream:
+ *   int MAGIC, long seed, short player count, the names as modified UTF-8,
+ *   boolean keepScores, the log format as modified UTF-8, int experiments
+ *   finished, long log length, then the ScoreMatrix and SequentialRanking.
+ */
+final class Checkpoint {
+    static final int MAGIC = 0x54504443; // "TPDC"
+
+    final long seed;
+    final int experiments;
+    final long logLength;
+
+    private Checkpoint(long seed, int experiments, long logLength) {
+        this.seed = seed;
+        this.experiments = experiments;
+        this.logLength = logLength;
+    }
+
+    static void save(File file, Tournament tournament, ScoreMatrix scores, SequentialRanking ranking,
+            long logLength) throws IOException {
+        File temporary = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temporary)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(MAGIC);
+            out.writeLong(tournament.seed);
+            out.writeShort(scores.names.length);
+            for (String name : scores.names)
+                out.writeUTF(name);
+            out.writeBoolean(scores.keepsScores());
+            out.writeUTF(TournamentLog.logFormat());
+            out.writeInt(scores.experiments());
+            out.writeLong(logLength);
+            scores.writeTo(out);
+            ranking.writeTo(out);
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(file.getAbsoluteFile().getParentFile());
+    }
+
+    // Writes the directory's entries to disk, so that a rename in it
+    // survives a crash. Some platforms cannot open a directory; there the
+    // rename is as durable as the file system makes it.
+    static void forceDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // The rename stands, only its durability is up to the file system
+        }
+    }
+
+    /*
+     * Restores scores and ranking from file, which must have been saved by a
+     * sweep of the same strategies, keepScores setting and log format, with
+     * the given seed unless requireSeed is false, and whose log still holds
+     * what was written before the checkpoint. Returns null, leaving scores
+     * and ranking alone, when there is no such checkpoint or it cannot be
+     * read.
+     */
+    static Checkpoint load(File file, long seed, boolean requireSeed, File log, ScoreMatrix scores,
+            SequentialRanking ranking) throws IOException {
+        if (!file.exists())
+            return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC)
+                return null;
+            long savedSeed = in.readLong();
+            String[] names = new String[in.readShort()];
+            for (int p = 0; p < names.length; p++)
+                names[p] = in.readUTF();
+            boolean keepScores = in.readBoolean();
+            String logFormat = in.readUTF();
+            if ((requireSeed && savedSeed != seed) || !Arrays.equals(names, scores.names)
+                    || keepScores != scores.keepsScores() || !logFormat.equals(TournamentLog.logFormat()))
+                return null;
+            int experiments = in.readInt();
+            long logLength = in.readLong();
+            if (log.length() < logLength)
+                return null;
+
+            // The body is read into fresh objects first, so that a body cut
+            // short or corrupt leaves scores and ranking as they were.
+            // ScoreMatrix.writeTo starts with the experiment count, which
+            // must fit in the body when the scores are kept.
+            byte[] body = in.readAllBytes();
+            if (body.length < 4 || ByteBuffer.wrap(body).getInt() != experiments || experiments < 0
+                    || (keepScores && (long) experiments * 4 * names.length > body.length))
+                return null;
+            ScoreMatrix readScores = new ScoreMatrix(scores.names, experiments, keepScores);
+            SequentialRanking readRanking = new SequentialRanking(ranking.strategies, ranking.confidence,
+                    ranking.indifference, ranking.minExperiments);
+            if (!readBody(body, readScores, readRanking))
+                return null;
+            readBody(body, scores, ranking);
+            return new Checkpoint(savedSeed, experiments, logLength);
+        } catch (EOFException | UTFDataFormatException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    // Reads the score matrix and ranking of body into scores and ranking, and
+    // returns whether they took up exactly the whole body
+    private static boolean readBody(byte[] body, ScoreMatrix scores, SequentialRanking ranking) throws IOException {
+        ByteArrayInputStream bytes = new ByteArrayInputStream(body);
+        DataInputStream in = new DataInputStream(bytes);
+        scores.readFrom(in);
+        ranking.readFrom(in);
+        return bytes.available() == 0;
+    }
+}
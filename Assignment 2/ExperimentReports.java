@@ -0,0 +1,371 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.awt.Color;
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+
+/*
+ * The tables and charts written at the end of an experiment sweep.
+ *
+ * Each Report writes one file into the tournament's output directory.
+ * Tournament.reports lists the ones a sweep writes, in order; standard() is
+ * what the experiment programs have always produced. Reports that need every
+ * experiment's scores skip themselves when those were not kept.
+ */
+final class ExperimentReports {
+    private ExperimentReports() {
+    }
+
+    interface Report {
+        void write(Tournament tournament, ScoreMatrix scores) throws IOException;
+    }
+
+    // Mean, spread, confidence interval and percentiles of each strategy
+    static final Report STATISTICS = (tournament, scores) -> createStatisticsTable(scores, tournament.confidence,
+            tournament.outputFile("score_statistics.csv"));
+
+    // Every experiment's score of each strategy, with the average
+    static final Report CONSOLIDATED = (tournament, scores) -> {
+        if (scores.keepsScores())
+            createConsolidatedTable(scores, tournament.outputFile("consolidated_scores.csv"));
+    };
+
+    // Line plot of each strategy's score across experiments
+    static final Report SCORE_PLOT = (tournament, scores) -> {
+        if (scores.keepsScores())
+            createScorePlot(scores, generateDistinctColors(scores.strategies()),
+                    tournament.outputFile("strategy_scores.png"));
+    };
+
+    // Bar chart of the average scores, in the plot's colors
+    static final Report BAR_CHART = (tournament, scores) -> createAverageScoreBarChart(scores,
+            generateDistinctColors(scores.strategies()), tournament.outputFile("average_scores_bar_chart.png"));
+
+    // Time, calls and allocation of each strategy, with -Dtournament.metrics=true
+    static final Report METRICS = (tournament, scores) -> StrategyMetrics.get()
+            .writeTable(tournament.outputFile("strategy_metrics.csv"));
+
+    static List<Report> standard() {
+        if (StrategyMetrics.ENABLED)
+            return Arrays.asList(STATISTICS, CONSOLIDATED, SCORE_PLOT, BAR_CHART, METRICS);
+        return Arrays.asList(STATISTICS, CONSOLIDATED, SCORE_PLOT, BAR_CHART);
+    }
+
+    static void createConsolidatedTable(ScoreMatrix scores, String outputFilename) throws IOException {
+        PrintWriter writer = new PrintWriter(new FileWriter(outputFilename));
+
+        // Sort strategies by average score (descending)
+        double[] averageScores = scores.averages();
+        int[] sortedOrder = ScoreMatrix.descending(averageScores);
+
+        // Write the header row with experiment numbers and average
+        writer.print("Strategy");
+        for (int i = 1; i <= scores.experiments(); i++) {
+            writer.print(",Exp" + i);
+        }
+        writer.println(",Average");
+
+        // Write each strategy's scores in descending order of average score
+        for (int strategy : sortedOrder) {
+            double average = averageScores[strategy];
+
+            writer.print(scores.names[strategy]);
+
+            // Write each experiment's score
+            for (int e = 0; e < scores.experiments(); e++) {
+                writer.print("," + String.format("%.2f", scores.score(strategy, e)));
+            }
+
+            // Write the average
+            writer.println("," + String.format("%.2f", average));
+        }
+
+        writer.close();
+        System.out.println("Consolidated score table saved to: " + outputFilename);
+    }
+
+    // Write the mean, spread and confidence interval of each strategy's score
+    static void createStatisticsTable(ScoreMatrix scores, double confidence, String outputFilename) throws IOException {
+        PrintWriter writer = new PrintWriter(new FileWriter(outputFilename));
+        int[] sortedOrder = ScoreMatrix.descending(scores.averages());
+
+        writer.println("Strategy,Experiments,Mean,StdDev,CI" + Math.round(confidence * 100) + "Low,CI"
+                + Math.round(confidence * 100) + "High,Min,P5,Median,P95,Max");
+        for (int strategy : sortedOrder) {
+            RunningStats stats = scores.stats[strategy];
+            double halfWidth = stats.confidenceHalfWidth(confidence);
+            writer.println(scores.names[strategy] + "," + stats.count() + ","
+                    + String.format("%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f", stats.mean(),
+                            stats.standardDeviation(), stats.mean() - halfWidth, stats.mean() + halfWidth, stats.min,
+                            stats.p5.value(), stats.median.value(), stats.p95.value(), stats.max));
+        }
+
+        writer.close();
+        System.out.println("Score statistics saved to: " + outputFilename);
+    }
+
+    static Color[] generateDistinctColors(int count) {
+        Color[] colors = new Color[count];
+
+        // Use HSB (Hue, Saturation, Brightness) color model for even distribution
+        // around the color wheel
+        float hueStep = 1.0f / count;
+
+        for (int i = 0; i < count; i++) {
+            // Distribute hues evenly around the color wheel
+            float hue = i * hueStep;
+
+            // Alternate saturation and brightness for adjacent colors for better
+            // distinction
+            float saturation = 0.8f + (i % 2) * 0.2f; // Between 0.8 and 1.0
+            float brightness = 0.7f + ((i / 2) % 2) * 0.3f; // Between 0.7 and 1.0
+
+            colors[i] = Color.getHSBColor(hue, saturation, brightness);
+        }
+
+        // Add a shuffle step to ensure colors that are next to each other in the array
+        // are not too similar in the visual spectrum
+        for (int i = 0; i < count; i++) {
+            int swapIndex = (i + count / 2) % count;
+            Color temp = colors[i];
+            colors[i] = colors[swapIndex];
+            colors[swapIndex] = temp;
+        }
+
+        return colors;
+    }
+
+    // Create a simple plot of scores across experiments
+    static void createScorePlot(ScoreMatrix scores, Color[] strategyColors, String outputFilename) throws IOException {
+        // Define plot dimensions
+        int width = 800;
+        int height = 600;
+        int padding = 60;
+
+        // Create the image
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+
+        // Set background
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, width, height);
+
+        // Find max score for scaling
+        float maxScore = scores.max();
+
+        // Draw axes
+        g2d.setColor(Color.BLACK);
+        g2d.setStroke(new BasicStroke(2));
+        g2d.drawLine(padding, height - padding, width - padding, height - padding); // x-axis
+        g2d.drawLine(padding, height - padding, padding, padding); // y-axis
+
+        // Draw axis labels
+        g2d.setFont(new Font("Arial", Font.BOLD, 14));
+        g2d.drawString("Experiment Number", width / 2 - 50, height - 20);
+        g2d.rotate(-Math.PI / 2, 20, height / 2);
+        g2d.drawString("Score", 20, height / 2);
+        g2d.rotate(Math.PI / 2, 20, height / 2);
+
+        // Title
+        g2d.setFont(new Font("Arial", Font.BOLD, 16));
+        g2d.drawString("Strategy Scores Across Experiments", width / 2 - 150, 30);
+
+        // Draw data lines
+        int experimentCount = scores.experiments();
+        int xStep = (width - 2 * padding) / Math.max(1, experimentCount - 1);
+
+        // Draw a legend in the bottom left corner, ensuring it doesn't overlap with
+        // data
+        int legendColumns = 3; // Split legend into multiple columns for better space usage
+        int entriesPerColumn = (int) Math.ceil(scores.strategies() / (double) legendColumns);
+        int legendEntryHeight = 20;
+        int legendColumnWidth = 200;
+
+        // Calculate dimensions
+        int legendWidth = legendColumns * legendColumnWidth;
+        int legendHeight = entriesPerColumn * legendEntryHeight + 10;
+
+        // Position at bottom left with padding
+        int legendX = padding;
+        int legendY = height - padding - legendHeight;
+
+        // Draw legend background
+        g2d.setColor(new Color(255, 255, 255, 230)); // More opaque background
+        g2d.fillRect(legendX, legendY, legendWidth, legendHeight);
+        g2d.setColor(Color.BLACK);
+        g2d.drawRect(legendX, legendY, legendWidth, legendHeight);
+
+        // Draw legend entries in multiple columns
+        g2d.setFont(new Font("Arial", Font.PLAIN, 12));
+        int entryCounter = 0;
+        int currentColumn = 0;
+
+        for (int strategy = 0; strategy < scores.strategies(); strategy++) {
+            String name = scores.names[strategy];
+
+            // Calculate position in the legend grid
+            int currentX = legendX + currentColumn * legendColumnWidth + 10;
+            int currentY = legendY + (entryCounter % entriesPerColumn) * legendEntryHeight + 20;
+
+            g2d.setColor(strategyColors[strategy]);
+
+            // Draw the legend entry
+            g2d.drawLine(currentX, currentY - 5, currentX + 30, currentY - 5);
+            g2d.drawString(name, currentX + 40, currentY);
+
+            // Increment counters
+            entryCounter++;
+            if (entryCounter % entriesPerColumn == 0) {
+                currentColumn++;
+            }
+
+            // Draw the line graph
+            for (int i = 0; i < experimentCount - 1; i++) {
+                int x1 = padding + i * xStep;
+                int y1 = height - padding - (int) (scores.score(strategy, i) / maxScore * (height - 2 * padding));
+                int x2 = padding + (i + 1) * xStep;
+                int y2 = height - padding - (int) (scores.score(strategy, i + 1) / maxScore * (height - 2 * padding));
+
+                g2d.drawLine(x1, y1, x2, y2);
+
+                // Mark points
+                g2d.fillOval(x1 - 3, y1 - 3, 6, 6);
+                if (i == experimentCount - 2) {
+                    g2d.fillOval(x2 - 3, y2 - 3, 6, 6);
+                }
+            }
+        }
+
+        // Draw scale on y-axis
+        g2d.setColor(Color.BLACK);
+        g2d.setFont(new Font("Arial", Font.PLAIN, 10));
+        for (int i = 0; i <= 10; i++) {
+            int y = height - padding - i * (height - 2 * padding) / 10;
+            float scaleValue = i * maxScore / 10;
+            g2d.drawLine(padding - 5, y, padding, y);
+            g2d.drawString(String.format("%.1f", scaleValue), padding - 40, y + 5);
+        }
+
+        // Draw scale on x-axis
+        for (int i = 0; i < experimentCount; i++) {
+            int x = padding + i * xStep;
+            g2d.drawLine(x, height - padding, x, height - padding + 5);
+            g2d.drawString(String.valueOf(i + 1), x - 5, height - padding + 20);
+        }
+
+        g2d.dispose();
+
+        // Save the image
+        File outputFile = new File(outputFilename);
+        ImageIO.write(image, "png", outputFile);
+        System.out.println("Score plot saved to: " + outputFilename);
+    }
+
+    static void createAverageScoreBarChart(ScoreMatrix scores, Color[] strategyColors, String outputFilename)
+            throws IOException {
+        // Sort strategies by average score (descending)
+        double[] averageScores = scores.averages();
+        int[] sortedOrder = ScoreMatrix.descending(averageScores);
+
+        // Define chart dimensions
+        int width = 1000;
+        int height = 600;
+        int padding = 100; // Increased padding for labels
+
+        // Create the image
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+
+        // Set background
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, width, height);
+
+        // Find max score for scaling
+        double maxScore = 0;
+        for (double average : averageScores) {
+            if (average > maxScore) {
+                maxScore = average;
+            }
+        }
+
+        // Draw axes
+        g2d.setColor(Color.BLACK);
+        g2d.setStroke(new BasicStroke(2));
+        g2d.drawLine(padding, height - padding, width - padding, height - padding); // x-axis
+        g2d.drawLine(padding, height - padding, padding, padding); // y-axis
+
+        // Draw axis labels
+        g2d.setFont(new Font("Arial", Font.BOLD, 14));
+        g2d.drawString("Strategy", width / 2 - 30, height - 40);
+        g2d.rotate(-Math.PI / 2, 40, height / 2);
+        g2d.drawString("Average Score", 40, height / 2);
+        g2d.rotate(Math.PI / 2, 40, height / 2);
+
+        // Title
+        g2d.setFont(new Font("Arial", Font.BOLD, 18));
+        g2d.drawString("Average Strategy Scores After " + scores.experiments() + " Experiments", width / 2 - 200, 40);
+
+        // Calculate bar width based on available space and number of strategies
+        int availableWidth = width - 2 * padding;
+        int barWidth = (int) (availableWidth * 0.8 / sortedOrder.length);
+        int barSpacing = (int) (availableWidth * 0.2 / (sortedOrder.length + 1));
+
+        // Draw bars and labels
+        g2d.setFont(new Font("Arial", Font.PLAIN, 12));
+
+        for (int i = 0; i < sortedOrder.length; i++) {
+            String strategy = scores.names[sortedOrder[i]];
+            double score = averageScores[sortedOrder[i]];
+
+            // Calculate bar dimensions
+            int barX = padding + barSpacing * (i + 1) + barWidth * i;
+            int barHeight = (int) (score / maxScore * (height - 2 * padding));
+            int barY = height - padding - barHeight;
+
+            // Draw the bar
+            g2d.setColor(strategyColors[sortedOrder[i]]);
+            g2d.fillRect(barX, barY, barWidth, barHeight);
+            g2d.setColor(Color.BLACK);
+            g2d.drawRect(barX, barY, barWidth, barHeight);
+
+            // Draw score value on top of bar
+            g2d.drawString(String.format("%.2f", score), barX + barWidth / 2 - 15, barY - 5);
+
+            // Draw strategy name below bar (rotated for better readability if many
+            // strategies)
+            if (sortedOrder.length > 10) {
+                // For many strategies, rotate the labels
+                g2d.rotate(-Math.PI / 4, barX + barWidth / 2, height - padding + 15);
+                g2d.drawString(strategy, barX + barWidth / 2 - strategy.length() * 3, height - padding + 15);
+                g2d.rotate(Math.PI / 4, barX + barWidth / 2, height - padding + 15);
+            } else {
+                // For fewer strategies, regular horizontal labels
+                g2d.drawString(strategy, barX + barWidth / 2 - strategy.length() * 3, height - padding + 15);
+            }
+        }
+
+        // Draw scale on y-axis
+        g2d.setColor(Color.BLACK);
+        g2d.setFont(new Font("Arial", Font.PLAIN, 10));
+        for (int i = 0; i <= 10; i++) {
+            int y = height - padding - i * (height - 2 * padding) / 10;
+            double scaleValue = i * maxScore / 10;
+            g2d.drawLine(padding - 5, y, padding, y);
+            g2d.drawString(String.format("%.1f", scaleValue), padding - 40, y + 5);
+        }
+
+        g2d.dispose();
+
+        // Save the image
+        File outputFile = new File(outputFilename);
+        ImageIO.write(image, "png", outputFile);
+        System.out.println("Average score bar chart saved to: " + outputFilename);
+    }
+}
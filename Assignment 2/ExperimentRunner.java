@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/*
+ * Runs the experiments of a sweep, several at a time if asked to.
+ *
+ * Each experiment plays on its own random stream (Rng.experimentSeed) into
+ * its own Results, so experiments share nothing while they run. The results
+ * are then handed to the sink on the calling thread in experiment order, as
+ * soon as every earlier experiment has been handed over. Logs, tables and
+ * charts therefore come out the same for any parallelism.
+ *
+ * A sweep can stop early: after each experiment is handed over, the stop
+ * condition is checked, and no later experiment reaches the sink once it
+ * holds. Only a few experiments are started ahead of the sink, so little work
+ * is thrown away when that happens.
+ *
+ * A sweep resumed from a Checkpoint starts at the first experiment after it.
+ */
+class ExperimentRunner {
+    // Plays experiment number experimentNum and returns its results
+    interface Experiment {
+        TournamentExecutor.Results play(int experimentNum);
+    }
+
+    // Receives the results of each experiment, in experiment order
+    interface Sink {
+        void accept(int experimentNum, TournamentExecutor.Results results) throws IOException;
+    }
+
+    /*
+     * Plays experiments 1 to count with up to parallelism of them at once
+     * and passes each one's results to sink.
+     */
+    static void run(int count, int parallelism, Experiment experiment, Sink sink) throws IOException {
+        run(count, parallelism, experiment, sink, () -> false);
+    }
+
+    /*
+     * Like run(count, parallelism, experiment, sink), but stops as soon as
+     * stop returns true after an experiment has been handed to sink. Returns
+     * the number of experiments handed over.
+     */
+    static int run(int count, int parallelism, Experiment experiment, Sink sink, BooleanSupplier stop)
+            throws IOException {
+        return run(1, count, parallelism, experiment, sink, stop);
+    }
+
+    /*
+     * Like run(count, parallelism, experiment, sink, stop), but plays only
+     * experiments first to count, those before having been run already.
+     * Returns the number of the last experiment handed over, or first - 1 if
+     * there was none.
+     */
+    static int run(int first, int count, int parallelism, Experiment experiment, Sink sink, BooleanSupplier stop)
+            throws IOException {
+        if (first > 1 && stop.getAsBoolean())
+            return first - 1;
+        if (parallelism <= 1) {
+            for (int i = first; i <= count; i++) {
+                sink.accept(i, experiment.play(i));
+                if (stop.getAsBoolean())
+                    return i;
+            }
+            return Math.max(count, first - 1);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "experiment-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // Experiments started but not yet handed over, in order
+            ArrayDeque<Future<TournamentExecutor.Results>> pending = new ArrayDeque<>();
+            int submitted = first - 1;
+            for (int i = first; i <= count; i++) {
+                while (submitted < count && pending.size() < 2 * parallelism) {
+                    int experimentNum = ++submitted;
+                    pending.add(pool.submit(() -> experiment.play(experimentNum)));
+                }
+                sink.accept(i, pending.poll().get());
+                if (stop.getAsBoolean())
+                    return i;
+            }
+            return Math.max(count, first - 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running experiments", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new IOException("Experiment failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
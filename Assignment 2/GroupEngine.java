@@ -0,0 +1,65 @@
+/*
+ * Plays a single match between a group of GroupPlayers.
+ *
+ * Every player is bound to the engine's GroupPayoff before the match. Every
+ * round each player is asked for its action, each is paid from the
+ * GroupPayoff by the number of others who defected, and each is told the
+ * others' actions in its own seat order (see GroupPlayer). The seat orders
+ * are read from one array of the round's actions, so reporting a round
+ * costs no allocation.
+ *
+ * Scores are per-round averages of integer totals, computed as MatchEngine
+ * computes them, so a three-player match scores exactly the same.
+ *
+ * An engine is not thread-safe; use one engine per thread.
+ */
+class GroupEngine {
+    final GroupPayoff payoff;
+    final int players;
+
+    private final int[] actions, totals;
+    private final int[] others; // others[s * (players - 1) + o]: what seat s sees as its o-th other player
+
+    private final int[][] view; // Per seat, the others' actions in its seat order
+
+    GroupEngine(GroupPayoff payoff) {
+        this.payoff = payoff;
+        this.players = payoff.players;
+        actions = new int[players];
+        totals = new int[players];
+        others = new int[players * (players - 1)];
+        view = new int[players][players - 1];
+        for (int s = 0; s < players; s++)
+            for (int o = 0; o < players - 1; o++)
+                others[s * (players - 1) + o] = (s + 1 + o) % players;
+    }
+
+    // Simulates one match and returns the average payoff of each seat.
+    float[] scoresOfMatch(GroupPlayer[] group, int rounds) {
+        for (int s = 0; s < players; s++) {
+            group[s].bind(payoff);
+            totals[s] = 0;
+        }
+        for (int i = 0; i < rounds; i++) {
+            int defectors = 0;
+            for (int s = 0; s < players; s++) {
+                actions[s] = group[s].nextAction(i);
+                defectors += actions[s];
+            }
+            for (int s = 0; s < players; s++) {
+                int action = actions[s];
+                totals[s] += payoff.get(action, defectors - action);
+            }
+            for (int s = 0; s < players; s++) {
+                int[] seen = view[s];
+                for (int o = 0, base = s * (players - 1); o < players - 1; o++)
+                    seen[o] = actions[others[base + o]];
+                group[s].onGroupRoundResult(actions[s], seen, defectors - actions[s]);
+            }
+        }
+        float[] result = new float[players];
+        for (int s = 0; s < players; s++)
+            result[s] = (float) totals[s] / rounds;
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Payoffs of an iterated dilemma between any number of players.
+ *
+ * As the comment on ThreePrisonersDilemma.payoff explains, a player's payoff
+ * is symmetric in its opponents: it depends only on its own action and on
+ * how many of the others defected. So instead of a tensor with one dimension
+ * per player, get(action, defectors) reads a table of 2 x players entries.
+ *
+ * The three-player table is of this form, and it is also linear in the
+ * number of cooperating opponents: every other player who cooperates adds 3
+ * points, and defecting adds 2 points of one's own. extend keeps those two
+ * amounts for larger groups, which makes the game a linear public-goods game.
+ */
+final class GroupPayoff {
+    final int players;
+
+    // payoff[action][defectors among the other players]
+    private final int[][] payoff;
+
+    GroupPayoff(int[][] payoff) {
+        this.players = payoff[0].length;
+        this.payoff = payoff;
+    }
+
+    int get(int action, int defectors) {
+        return payoff[action][defectors];
+    }
+
+    // The table of a three-player payoff tensor, which must not depend on the
+    // order of the opponents
+    static GroupPayoff of(int[][][] payoff) {
+        int[][] table = new int[2][3];
+        for (int a = 0; a < 2; a++)
+            for (int b = 0; b < 2; b++)
+                for (int c = 0; c < 2; c++) {
+                    if (payoff[a][b][c] != payoff[a][c][b])
+                        throw new IllegalArgumentException("Payoffs depend on the order of the opponents");
+                    table[a][b + c] = payoff[a][b][c];
+                }
+        return new GroupPayoff(table);
+    }
+
+    /*
+     * The game of the three-player tensor for a group of the given size, with
+     * the same reward per cooperating opponent and the same gain from
+     * defecting. For three players this is the tensor's own table.
+     */
+    static GroupPayoff extend(int[][][] payoff, int players) {
+        if (players < 2)
+            throw new IllegalArgumentException("A group needs at least two players");
+        GroupPayoff three = of(payoff);
+        int base = three.get(0, 2);
+        int perCooperator = three.get(0, 1) - base;
+        int defectionGain = three.get(1, 2) - base;
+        for (int a = 0; a < 2; a++)
+            for (int d = 0; d < 3; d++)
+                if (three.get(a, d) != base + a * defectionGain + (2 - d) * perCooperator)
+                    throw new IllegalArgumentException("Payoffs are not linear in the number of cooperators");
+        int[][] table = new int[2][players];
+        for (int a = 0; a < 2; a++)
+            for (int d = 0; d < players; d++)
+                table[a][d] = base + a * defectionGain + (players - 1 - d) * perCooperator;
+        return new GroupPayoff(table);
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * A strategy that can play in a group of any size.
+ *
+ * In a group match every player sits at a seat, and sees the other players
+ * in seat order starting after its own, wrapping around: with three players
+ * the one at seat 1 sees seats 2 and 0, exactly as the three-player engine
+ * reports opponents. After each round the engine calls onGroupRoundResult
+ * with the other players' actions in that order and the number of them that
+ * defected.
+ *
+ * This is the base class of the built-in strategies in Strategies. A
+ * three-player match reports its rounds through onRoundResult, which hands
+ * the two opponents to onGroupRoundResult, so each strategy is written once
+ * and plays the same in both engines.
+ */
+abstract class GroupPlayer extends Player {
+    private int[] opponents;
+
+    // Called by the engine after every round. others must not be kept, as
+    // the engine reuses it.
+    void onGroupRoundResult(int myMove, int[] others, int defectors) {
+    }
+
+    final void onRoundResult(int myMove, int opp1Move, int opp2Move) {
+        if (opponents == null)
+            opponents = new int[2];
+        opponents[0] = opp1Move;
+        opponents[1] = opp2Move;
+        onGroupRoundResult(myMove, opponents, opp1Move + opp2Move);
+    }
+}
@@ -0,0 +1,158 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * A tournament of group matches: every multiset of groupSize players from the
+ * roster, copies included, plays one match, as the three-player tournament
+ * plays every triple i <= j <= k.
+ *
+ * The groups are listed once, in lexicographic order of their non-decreasing
+ * member lists; for three players that is the order of the i <= j <= k loop.
+ * Each match draws its players, its round count and its moves from a stream
+ * seeded by the experiment seed and its members (Rng.beginMatch), and scores
+ * are added up in group order. A group tournament of three players therefore
+ * gives exactly the totals of TournamentExecutor for the same seed.
+ *
+ * There are C(players + groupSize - 1, groupSize) groups, e.g. 1,081,575
+ * groups of eight from 18 strategies. Groups are played in chunks on a
+ * ForkJoinPool, with one GroupEngine per thread.
+ *
+ * Run it with java -Dtournament.groupSize=<players> GroupTournament.
+ */
+class GroupTournament {
+    // A task stops splitting once it holds this many groups
+    static final int CHUNK_SIZE = 256;
+
+    final StrategyRegistry.Roster roster;
+    final GroupPayoff payoff;
+    final int groupSize, numPlayers, parallelism;
+
+    // members[g * groupSize + seat]: the roster index at that seat of group g
+    final int[] members;
+
+    final ThreadLocal<GroupEngine> engines;
+    ForkJoinPool pool;
+
+    GroupTournament(StrategyRegistry.Roster roster, GroupPayoff payoff, int parallelism) {
+        this.roster = roster;
+        this.payoff = payoff;
+        this.groupSize = payoff.players;
+        this.numPlayers = roster.size();
+        this.parallelism = Math.max(1, parallelism);
+        this.engines = ThreadLocal.withInitial(() -> new GroupEngine(payoff));
+        String[] names = roster.names();
+        for (int w = 0; w < numPlayers; w++)
+            if (!(roster.makePlayer(w) instanceof GroupPlayer))
+                throw new IllegalArgumentException(names[w] + " cannot play in groups");
+        members = groups(numPlayers, groupSize);
+    }
+
+    // Every non-decreasing list of size indices below players, in
+    // lexicographic order, one after the other
+    static int[] groups(int players, int size) {
+        long count = 1;
+        for (int i = 1; i <= size; i++)
+            count = count * (players + i - 1) / i; // C(players + i - 1, i), exact at every step
+        if (count * size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(count + " groups of " + size + " are too many");
+        int[] members = new int[(int) count * size];
+        int[] group = new int[size];
+        for (int g = 0; g < count; g++) {
+            System.arraycopy(group, 0, members, g * size, size);
+            // Next group: raise the last seat that can still be raised and
+            // fill the seats after it with the same index
+            int seat = size - 1;
+            while (seat >= 0 && group[seat] == players - 1)
+                seat--;
+            if (seat < 0)
+                break;
+            int value = group[seat] + 1;
+            for (int s = seat; s < size; s++)
+                group[s] = value;
+        }
+        return members;
+    }
+
+    int groupCount() {
+        return members.length / groupSize;
+    }
+
+    // Plays every group once and returns the total score of each player
+    float[] run(long seed) {
+        float[] scores = new float[members.length];
+        if (parallelism == 1)
+            play(engines.get(), seed, scores, 0, groupCount());
+        else
+            pool().invoke(new PlayTask(seed, scores, 0, groupCount()));
+        float[] totalScore = new float[numPlayers];
+        for (int m = 0; m < members.length; m++)
+            totalScore[members[m]] = totalScore[members[m]] + scores[m];
+        return totalScore;
+    }
+
+    synchronized ForkJoinPool pool() {
+        if (pool == null)
+            pool = new ForkJoinPool(parallelism);
+        return pool;
+    }
+
+    // Plays groups [from, to) and stores each seat's score in scores
+    void play(GroupEngine engine, long seed, float[] scores, int from, int to) {
+        GroupPlayer[] group = new GroupPlayer[groupSize];
+        for (int g = from; g < to; g++) {
+            int base = g * groupSize;
+            Rng.beginMatch(seed, members, base, groupSize);
+            try {
+                for (int s = 0; s < groupSize; s++)
+                    group[s] = (GroupPlayer) roster.makePlayer(members[base + s]);
+                // Between 90 and 110 rounds
+                int rounds = TournamentExecutor.rounds(Rng.random());
+                float[] result = engine.scoresOfMatch(group, rounds);
+                System.arraycopy(result, 0, scores, base, groupSize);
+            } finally {
+                Rng.endMatch();
+            }
+        }
+    }
+
+    class PlayTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final long seed;
+        final float[] scores;
+        final int from, to;
+
+        PlayTask(long seed, float[] scores, int from, int to) {
+            this.seed = seed;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                play(engines.get(), seed, scores, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PlayTask(seed, scores, from, mid), new PlayTask(seed, scores, mid, to));
+        }
+    }
+
+    public static void main(String[] args) {
+        int groupSize = Integer.getInteger("tournament.groupSize", 4);
+        int parallelism = Integer.getInteger("tournament.parallelism", 1);
+        long seed = Long.getLong("tournament.seed", Rng.randomSeed());
+        StrategyRegistry.Roster roster = Strategies.standard().roster(System.getProperty("tournament.roster"));
+        GroupTournament tournament = new GroupTournament(roster,
+                GroupPayoff.extend(ThreePrisonersDilemma.payoff, groupSize), parallelism);
+
+        float[] totalScore = tournament.run(seed);
+        int[] sortedOrder = TournamentLog.sortedOrder(totalScore);
+        String[] names = roster.names();
+        System.out.println("Tournament Results (" + groupSize + " players, " + tournament.groupCount()
+                + " groups, seed " + seed + ")");
+        for (int i = 0; i < names.length; i++)
+            System.out.println(names[sortedOrder[i]] + ": " + totalScore[sortedOrder[i]] + " points.");
+    }
+}
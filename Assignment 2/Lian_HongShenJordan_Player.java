@@ -14,4 +14,21 @@ class Lian_HongShenJordan_Player extends Player {
 
         return 0; // Otherwise cooperate
     }
+
+    boolean isDeterministic() {
+        return true;
+    }
+
+    // Only each opponent's run of defections over the last three rounds
+    // matters, which lets the tournament compile this strategy into a table
+    long stateKey(int n) {
+        return defectionStreak(oppHistory1) * 4 + defectionStreak(oppHistory2);
+    }
+
+    int defectionStreak(BitHistory history) {
+        int streak = 0;
+        while (streak < 3 && streak < history.length() && history.get(history.length() - 1 - streak) == 1)
+            streak++;
+        return streak;
+    }
 }
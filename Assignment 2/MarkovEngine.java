@@ -0,0 +1,140 @@
+import java.util.Arrays;
+
+/*
+ * Computes the exact expected scores of a match between three
+ * StochasticMachines, instead of sampling matches.
+ *
+ * The joint state of the three machines is a Markov chain. The engine carries
+ * the probability distribution over joint states forward one round at a
+ * time, adding up each player's expected payoff for the round. A match of r
+ * rounds scores its total divided by r, so the expected score is
+ *   sum over r of P(rounds = r) * (expected total of the first r rounds) / r
+ * with the round-count distribution of TournamentExecutor. The result has no
+ * sampling error; for deterministic players it equals the average of the
+ * simulated scores weighted by that distribution.
+ *
+ * Only joint states that can actually be reached are stored, so the cost of a
+ * round grows with the number of reachable states rather than with the
+ * product of the machines' sizes. One engine per thread, like MatchEngine.
+ */
+class MarkovEngine {
+    final int[][][] payoff;
+    final double[] roundsProbability;
+
+    // Distribution over joint states before and after the current round
+    private Distribution current = new Distribution(), following = new Distribution();
+
+    MarkovEngine(int[][][] payoff, double[] roundsProbability) {
+        this.payoff = payoff;
+        this.roundsProbability = roundsProbability;
+    }
+
+    // Expected per-round scores of A, B and C, averaged over the round counts
+    double[] expectedScoresOfMatch(StochasticMachine A, StochasticMachine B, StochasticMachine C) {
+        int statesB = B.states(), statesC = C.states();
+        int maxRounds = roundsProbability.length - 1;
+
+        current.clear();
+        for (int a : A.initialStates)
+            for (int b : B.initialStates)
+                for (int c : C.initialStates)
+                    current.add((a * statesB + b) * statesC + c, A.initial[a] * B.initial[b] * C.initial[c]);
+
+        // Expected totals of the rounds played so far
+        double totalA = 0, totalB = 0, totalC = 0;
+        double[] expected = new double[3];
+        for (int n = 0; n < maxRounds; n++) {
+            following.clear();
+            for (int slot = 0; slot < current.size; slot++) {
+                int joint = current.keys[current.used[slot]];
+                double p = current.probs[current.used[slot]];
+                int c = joint % statesC, b = joint / statesC % statesB, a = joint / statesC / statesB;
+                double defectA = A.defect[a], defectB = B.defect[b], defectC = C.defect[c];
+                // Moves with probability 0 are skipped, so deterministic players
+                // branch only once
+                for (int moveA = 0; moveA < 2; moveA++) {
+                    double pA = p * (moveA == 1 ? defectA : 1 - defectA);
+                    if (pA == 0)
+                        continue;
+                    for (int moveB = 0; moveB < 2; moveB++) {
+                        double pB = pA * (moveB == 1 ? defectB : 1 - defectB);
+                        if (pB == 0)
+                            continue;
+                        for (int moveC = 0; moveC < 2; moveC++) {
+                            double q = pB * (moveC == 1 ? defectC : 1 - defectC);
+                            if (q == 0)
+                                continue;
+                            totalA += q * payoff[moveA][moveB][moveC];
+                            totalB += q * payoff[moveB][moveC][moveA];
+                            totalC += q * payoff[moveC][moveA][moveB];
+                            // Each player sees its opponents in the order the engine reports them
+                            int nextA = A.next[8 * a + (moveA << 2 | moveB << 1 | moveC)];
+                            int nextB = B.next[8 * b + (moveB << 2 | moveC << 1 | moveA)];
+                            int nextC = C.next[8 * c + (moveC << 2 | moveA << 1 | moveB)];
+                            following.add((nextA * statesB + nextB) * statesC + nextC, q);
+                        }
+                    }
+                }
+            }
+            Distribution swap = current;
+            current = following;
+            following = swap;
+
+            double weight = roundsProbability[n + 1];
+            if (weight > 0) {
+                expected[0] += weight * totalA / (n + 1);
+                expected[1] += weight * totalB / (n + 1);
+                expected[2] += weight * totalC / (n + 1);
+            }
+        }
+        return expected;
+    }
+
+    // Probabilities of joint states, in an open-addressing table that can be
+    // emptied in time proportional to its occupied slots
+    static final class Distribution {
+        int[] keys = new int[64];
+        double[] probs = new double[64];
+        int[] used = new int[64]; // Occupied slots in insertion order
+        int size;
+
+        Distribution() {
+            Arrays.fill(keys, -1);
+        }
+
+        void add(int key, double p) {
+            int mask = keys.length - 1;
+            int slot = (int) Rng.mix64(key) & mask;
+            while (keys[slot] != -1 && keys[slot] != key)
+                slot = (slot + 1) & mask;
+            if (keys[slot] == key) {
+                probs[slot] += p;
+                return;
+            }
+            keys[slot] = key;
+            probs[slot] = p;
+            used[size++] = slot;
+            if (2 * size > keys.length)
+                grow();
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++)
+                keys[used[i]] = -1;
+            size = 0;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys, oldUsed = used;
+            double[] oldProbs = probs;
+            int oldSize = size;
+            keys = new int[2 * oldKeys.length];
+            probs = new double[2 * oldKeys.length];
+            used = new int[2 * oldKeys.length];
+            size = 0;
+            Arrays.fill(keys, -1);
+            for (int i = 0; i < oldSize; i++)
+                add(oldKeys[oldUsed[i]], oldProbs[oldUsed[i]]);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Remembers the scores of matches between deterministic strategies.
+ *
+ * When all three players of a match are deterministic, the scores depend
+ * only on the ordered triple (i, j, k) and the number of rounds, so an
+ * experiment that draws the same triple and round count again can reuse them
+ * instead of simulating the match.
+ *
+ * Every thread playing triples looks matches up here, so the entries are
+ * kept in a ConcurrentHashMap: lookups take no lock, and a hit changes
+ * nothing but a striped counter. There is no recency order to maintain. The
+ * keys of a roster are bounded (behaviours cubed times 21 round counts,
+ * within DEFAULT_CAPACITY for 18 players), so the cache rarely fills up;
+ * when it does, a put evicts an arbitrary entry. Racing puts may briefly
+ * hold a few entries more than capacity.
+ *
+ * Players are given by the index of their behaviour in one roster (see
+ * TournamentExecutor.behaviour), so a cache must not be shared between
+ * tournaments with different rosters.
+ */
+class MatchCache {
+    // Enough for every triple of an 18-player tournament at every round count
+    static final int DEFAULT_CAPACITY = 1 << 15;
+
+    final int capacity;
+    final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+    private final ConcurrentHashMap<Long, float[]> entries = new ConcurrentHashMap<>();
+
+    MatchCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // Returns the cached scores of the match, or null if it has not been played.
+    // The returned array is shared and must not be modified.
+    float[] get(int i, int j, int k, int rounds) {
+        float[] scores = entries.get(key(i, j, k, rounds));
+        if (scores == null)
+            misses.increment();
+        else
+            hits.increment();
+        return scores;
+    }
+
+    void put(int i, int j, int k, int rounds, float[] scores) {
+        if (entries.mappingCount() >= capacity) {
+            Iterator<Long> keys = entries.keySet().iterator();
+            if (keys.hasNext())
+                entries.remove(keys.next());
+        }
+        entries.put(key(i, j, k, rounds), scores);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    static long key(int i, int j, int k, int rounds) {
+        return ((long) i << 48) | ((long) j << 32) | ((long) k << 16) | rounds;
+    }
+}
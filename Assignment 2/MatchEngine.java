@@ -0,0 +1,261 @@
+/*
+ * Plays a single match between three players.
+ *
+ * The original scoresOfMatch grew each history by one element every round,
+ * copying the whole array each time. The engine instead keeps one BitHistory
+ * per player, sized for the longest match it has seen, and reuses it for
+ * every match.
+ *
+ * Each round the engine asks every player for its action with nextAction(n)
+ * and then reports the round with onRoundResult, so event-driven strategies
+ * never look at the histories. History-based strategies are bound to the
+ * histories before the match and read them through Player's bridge.
+ *
+ * When all three players are deterministic and report a finite state through
+ * Player.stateKey, the engine remembers the joint state after every round.
+ * Once a joint state repeats, play from then on is periodic, and the payoffs
+ * of the remaining rounds are added up from one period instead of being
+ * simulated. Pass -Dtournament.cycleDetection=false to always simulate every
+ * round.
+ *
+ * Matches between strategies compiled into StateMachines can be played with
+ * the StateMachine overload of scoresOfMatch, which gives the same scores
+ * using table lookups only.
+ *
+ * With tracing on, the engine also keeps the moves of every round of the
+ * last match, including the rounds a detected cycle skipped, and trace()
+ * returns them run-length encoded (see MoveTraces).
+ *
+ * An engine is not thread-safe; use one engine per thread.
+ */
+class MatchEngine {
+    // Matches last between 90 and 110 rounds
+    static final int DEFAULT_CAPACITY = 110;
+
+    // Whether scoresOfMatch records the moves of each round for trace()
+    boolean tracing;
+
+    // Moves of round r of the last match as A << 2 | B << 1 | C, when tracing
+    int[] moves = new int[DEFAULT_CAPACITY];
+    int tracedRounds;
+
+    final int[][][] payoff;
+
+    // The same payoffs, for the strategies that read them (see Player.payoff)
+    final GroupPayoff groupPayoff;
+
+    final BitHistory historyA, historyB, historyC;
+
+    boolean detectCycles = Boolean.parseBoolean(System.getProperty("tournament.cycleDetection", "true"));
+
+    // Total payoffs after each round, used to sum up a detected cycle
+    int[] totalsA, totalsB, totalsC;
+
+    // Open-addressing table from joint state to the round it was first seen in.
+    // Entries whose stamp differs from the current match's are empty.
+    long[] seenState;
+    int[] seenRound, seenStamp;
+    int stamp;
+
+    // Largest joint state space for which compiled matches look for cycles
+    static final int MAX_JOINT_STATES = 1 << 16;
+
+    // Round after which each joint machine state was first seen, valid where
+    // the stamp matches the current match
+    int[] machineSeenRound, machineSeenStamp;
+
+    MatchEngine(int[][][] payoff) {
+        this(payoff, DEFAULT_CAPACITY);
+    }
+
+    MatchEngine(int[][][] payoff, int capacity) {
+        this.payoff = payoff;
+        this.groupPayoff = GroupPayoff.of(payoff);
+        historyA = new BitHistory(capacity);
+        historyB = new BitHistory(capacity);
+        historyC = new BitHistory(capacity);
+    }
+
+    // Simulates a single match and returns the average payoff of each player.
+    float[] scoresOfMatch(Player A, Player B, Player C, int rounds) {
+        BitHistory HistoryA = historyA, HistoryB = historyB, HistoryC = historyC;
+        HistoryA.clear();
+        HistoryB.clear();
+        HistoryC.clear();
+        A.bind(HistoryA, HistoryB, HistoryC);
+        B.bind(HistoryB, HistoryC, HistoryA);
+        C.bind(HistoryC, HistoryA, HistoryB);
+        A.bind(groupPayoff);
+        B.bind(groupPayoff);
+        C.bind(groupPayoff);
+        // Payoffs are small integers, so integer totals give exactly the
+        // same averages as summing them in floats
+        int ScoreA = 0, ScoreB = 0, ScoreC = 0;
+
+        boolean detect = detectCycles && A.isDeterministic() && B.isDeterministic() && C.isDeterministic();
+        if (detect)
+            startCycleDetection(rounds);
+        if (tracing)
+            startTrace(rounds);
+
+        for (int i = 0; i < rounds; i++) {
+            int PlayA = A.nextAction(i);
+            int PlayB = B.nextAction(i);
+            int PlayC = C.nextAction(i);
+            ScoreA = ScoreA + payoff[PlayA][PlayB][PlayC];
+            ScoreB = ScoreB + payoff[PlayB][PlayC][PlayA];
+            ScoreC = ScoreC + payoff[PlayC][PlayA][PlayB];
+            A.onRoundResult(PlayA, PlayB, PlayC);
+            B.onRoundResult(PlayB, PlayC, PlayA);
+            C.onRoundResult(PlayC, PlayA, PlayB);
+            HistoryA.append(PlayA);
+            HistoryB.append(PlayB);
+            HistoryC.append(PlayC);
+            if (tracing)
+                moves[i] = PlayA << 2 | PlayB << 1 | PlayC;
+
+            if (detect) {
+                int played = i + 1;
+                totalsA[played] = ScoreA;
+                totalsB[played] = ScoreB;
+                totalsC[played] = ScoreC;
+                long state = jointState(A, B, C, played);
+                if (state == Player.NO_STATE) {
+                    detect = false;
+                    continue;
+                }
+                int start = findOrAdd(state, played);
+                if (start >= 0) {
+                    // Rounds start .. played - 1 now repeat until the end of the match
+                    int period = played - start;
+                    int cycles = (rounds - played) / period;
+                    int rest = (rounds - played) % period;
+                    ScoreA = ScoreA + cycles * (ScoreA - totalsA[start]) + totalsA[start + rest] - totalsA[start];
+                    ScoreB = ScoreB + cycles * (ScoreB - totalsB[start]) + totalsB[start + rest] - totalsB[start];
+                    ScoreC = ScoreC + cycles * (ScoreC - totalsC[start]) + totalsC[start + rest] - totalsC[start];
+                    if (tracing)
+                        repeatTrace(start, played, rounds);
+                    break;
+                }
+            }
+        }
+        float[] result = { (float) ScoreA / rounds, (float) ScoreB / rounds, (float) ScoreC / rounds };
+        return result;
+    }
+
+    void startTrace(int rounds) {
+        if (moves.length < rounds)
+            moves = new int[rounds];
+        tracedRounds = rounds;
+    }
+
+    // Fills in the rounds after played, which repeat rounds start .. played - 1
+    void repeatTrace(int start, int played, int rounds) {
+        for (int r = played; r < rounds; r++)
+            moves[r] = moves[start + (r - played) % (played - start)];
+    }
+
+    // The moves of the last match, run-length encoded by MoveTraces.encode
+    byte[] trace() {
+        return MoveTraces.encode(moves, tracedRounds);
+    }
+
+    void startCycleDetection(int rounds) {
+        if (totalsA == null || totalsA.length < rounds + 1) {
+            totalsA = new int[rounds + 1];
+            totalsB = new int[rounds + 1];
+            totalsC = new int[rounds + 1];
+            int size = Integer.highestOneBit(2 * rounds + 1) << 1;
+            seenState = new long[size];
+            seenRound = new int[size];
+            seenStamp = new int[size];
+        }
+        stamp++;
+    }
+
+    // Packs the three players' states after the given number of rounds into
+    // one key, or returns NO_STATE if any of them has no finite state.
+    static long jointState(Player A, Player B, Player C, int played) {
+        long a = A.stateKey(played), b = B.stateKey(played), c = C.stateKey(played);
+        if (a == Player.NO_STATE || b == Player.NO_STATE || c == Player.NO_STATE)
+            return Player.NO_STATE;
+        return (a << 42) | (b << 21) | c;
+    }
+
+    // Returns the round at which state was first seen in this match, or
+    // records it as seen at the given round and returns -1.
+    int findOrAdd(long state, int round) {
+        int mask = seenState.length - 1;
+        int slot = (int) Rng.mix64(state) & mask;
+        while (seenStamp[slot] == stamp) {
+            if (seenState[slot] == state)
+                return seenRound[slot];
+            slot = (slot + 1) & mask;
+        }
+        seenStamp[slot] = stamp;
+        seenState[slot] = state;
+        seenRound[slot] = round;
+        return -1;
+    }
+
+    // Simulates a match between three compiled strategies and returns the
+    // average payoff of each, the same as scoresOfMatch on the players would.
+    float[] scoresOfMatch(StateMachine A, StateMachine B, StateMachine C, int rounds) {
+        int[] actionA = A.action, actionB = B.action, actionC = C.action;
+        int[] nextA = A.next, nextB = B.next, nextC = C.next;
+        int statesB = B.states(), statesC = C.states();
+        int stateA = 0, stateB = 0, stateC = 0;
+        int ScoreA = 0, ScoreB = 0, ScoreC = 0;
+
+        boolean detect = detectCycles && (long) A.states() * statesB * statesC <= MAX_JOINT_STATES;
+        if (detect) {
+            startCycleDetection(rounds);
+            int joint = A.states() * statesB * statesC;
+            if (machineSeenRound == null || machineSeenRound.length < joint) {
+                machineSeenRound = new int[joint];
+                machineSeenStamp = new int[joint];
+            }
+        }
+        if (tracing)
+            startTrace(rounds);
+
+        for (int i = 0; i < rounds; i++) {
+            int PlayA = actionA[stateA];
+            int PlayB = actionB[stateB];
+            int PlayC = actionC[stateC];
+            ScoreA = ScoreA + payoff[PlayA][PlayB][PlayC];
+            ScoreB = ScoreB + payoff[PlayB][PlayC][PlayA];
+            ScoreC = ScoreC + payoff[PlayC][PlayA][PlayB];
+            stateA = nextA[4 * stateA + (PlayB << 1 | PlayC)];
+            stateB = nextB[4 * stateB + (PlayC << 1 | PlayA)];
+            stateC = nextC[4 * stateC + (PlayA << 1 | PlayB)];
+            if (tracing)
+                moves[i] = PlayA << 2 | PlayB << 1 | PlayC;
+
+            if (detect) {
+                int played = i + 1;
+                totalsA[played] = ScoreA;
+                totalsB[played] = ScoreB;
+                totalsC[played] = ScoreC;
+                int index = (stateA * statesB + stateB) * statesC + stateC;
+                if (machineSeenStamp[index] == stamp) {
+                    // Rounds start .. played - 1 now repeat until the end of the match
+                    int start = machineSeenRound[index];
+                    int period = played - start;
+                    int cycles = (rounds - played) / period;
+                    int rest = (rounds - played) % period;
+                    ScoreA = ScoreA + cycles * (ScoreA - totalsA[start]) + totalsA[start + rest] - totalsA[start];
+                    ScoreB = ScoreB + cycles * (ScoreB - totalsB[start]) + totalsB[start + rest] - totalsB[start];
+                    ScoreC = ScoreC + cycles * (ScoreC - totalsC[start]) + totalsC[start + rest] - totalsC[start];
+                    if (tracing)
+                        repeatTrace(start, played, rounds);
+                    break;
+                }
+                machineSeenStamp[index] = stamp;
+                machineSeenRound[index] = played;
+            }
+        }
+        float[] result = { (float) ScoreA / rounds, (float) ScoreB / rounds, (float) ScoreC / rounds };
+        return result;
+    }
+}
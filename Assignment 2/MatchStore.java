@@ -0,0 +1,318 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Every match of an experiment sweep, in fixed-width columns of one
+ * memory-mapped file, for analysis after the sweep (-Dtournament.matchStore=true
+ * writes experiment_results/match_store.bin).
+ *
+ * The tournament log keeps matches as prose or as records to be read in
+ * order. The store keeps each field in a column of its own, so a scan reads
+ * only the columns it needs, and the columns are mapped straight from the
+ * file.
+ *
+ * The file is append-only. Each experiment adds one block of matches rows,
+ * matches being the number of triples per experiment, and a block holds one
+ * column after the other. Appending an experiment maps the block just past
+ * the end of the file, which grows the file by exactly one block, and writes
+ * it with puts into the mapped pages; the operating system writes them out.
+ * A sweep that stops early leaves a file holding just the experiments it
+ * played. A resumed sweep cuts the file after the experiments of its
+ * checkpoint and appends from there.
+ *
+ *   java MatchStore experiment_results/match_store.bin
+ *
+ * prints each strategy's matches and mean score from the score columns.
+ *
+ * Layout, big-endian: int MAGIC, long seed, int matches per experiment, int
+ * experiments written, short player count, the names as modified UTF-8; then
+ * from DATA_START one block per experiment, holding matches rows of each
+ * column in turn: int experiment, float score of each of the three seats,
+ * then short i, short j, short k and short rounds.
+ */
+class MatchStore implements AutoCloseable {
+    static final int MAGIC = 0x54504453; // "TPDS"
+
+    // Byte offset of the first block; the header must fit before it
+    static final int DATA_START = 1 << 16;
+
+    // A reader maps the blocks in segments of about this many bytes, so that
+    // a store can outgrow the 2 GB limit of one mapping
+    static final int SEGMENT_BYTES = 1 << 30;
+
+    // Offset of the experiments-written field in the header
+    static final int WRITTEN_OFFSET = 4 + 8 + 4;
+
+    static final int EXPERIMENT = 0, SCORE = 1, FIRST = 4, SECOND = 5, THIRD = 6, ROUNDS = 7;
+    static final int[] WIDTHS = { 4, 4, 4, 4, 2, 2, 2, 2 };
+
+    final String path;
+    final long seed;
+    final String[] names;
+    final int matches;
+    int written;
+
+    private final RandomAccessFile file;
+    private final boolean writable;
+
+    // Bytes from the start of a block to each column
+    private final int[] columnStart = new int[WIDTHS.length];
+    private final int blockBytes;
+
+    // For a reader: the written blocks, blocksPerSegment to a mapping.
+    // For a writer: the blocks appended since the last force.
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final int blocksPerSegment;
+
+    private MatchStore(String path, RandomAccessFile file, long seed, String[] names, int matches, int written,
+            boolean writable) throws IOException {
+        this.path = path;
+        this.file = file;
+        this.seed = seed;
+        this.names = names;
+        this.matches = matches;
+        this.written = written;
+        this.writable = writable;
+        long bytes = 0;
+        for (int c = 0; c < WIDTHS.length; c++) {
+            columnStart[c] = (int) bytes;
+            bytes += (long) matches * WIDTHS[c];
+        }
+        if (bytes > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(matches + " matches per experiment are too many for a match store");
+        blockBytes = (int) bytes;
+        blocksPerSegment = Math.max(1, SEGMENT_BYTES / Math.max(1, blockBytes));
+        if (!writable) {
+            if (file.length() < blockOffset(written))
+                throw new IOException(path + " is shorter than its " + written + " experiments");
+            FileChannel channel = file.getChannel();
+            for (long block = 0; block < written; block += blocksPerSegment) {
+                long size = Math.min(blocksPerSegment, written - block) * blockBytes;
+                segments.add(channel.map(FileChannel.MapMode.READ_ONLY, blockOffset(block), size));
+            }
+        }
+    }
+
+    /*
+     * Creates the store of a sweep with matches matches per experiment. With
+     * resumeAfter > 0 the experiments up to resumeAfter are kept from an
+     * earlier run of the same sweep, and anything after them is dropped. A
+     * file that is not a store of this sweep, or does not reach that far, is
+     * replaced.
+     */
+    static MatchStore create(String path, String[] names, long seed, int matches, int resumeAfter)
+            throws IOException {
+        if (resumeAfter > 0 && new File(path).exists()) {
+            RandomAccessFile file = new RandomAccessFile(path, "rw");
+            try {
+                MatchStore existing = readHeader(path, file, true);
+                long keep = existing == null ? -1 : existing.blockOffset(resumeAfter);
+                if (existing != null && existing.seed == seed && existing.matches == matches
+                        && Arrays.equals(existing.names, names) && existing.written >= resumeAfter
+                        && file.length() >= keep) {
+                    // Nothing is mapped yet, so the file can be cut
+                    file.getChannel().truncate(keep);
+                    existing.setWritten(resumeAfter);
+                    return existing;
+                }
+            } catch (IOException | RuntimeException e) {
+                file.close();
+                throw e;
+            }
+            file.close();
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeLong(seed);
+        out.writeInt(matches);
+        out.writeInt(0);
+        out.writeShort(names.length);
+        for (String name : names)
+            out.writeUTF(name);
+        if (out.size() > DATA_START)
+            throw new IllegalArgumentException("Too many strategy names for a match store");
+
+        // The old file is replaced rather than cut, as pages of it may still
+        // be mapped
+        Files.deleteIfExists(new File(path).toPath());
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        try {
+            file.write(bytes.toByteArray());
+            file.setLength(DATA_START);
+            return new MatchStore(path, file, seed, names, matches, 0, true);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    // Opens a store written by create for reading
+    static MatchStore open(String path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "r");
+        try {
+            MatchStore store = readHeader(path, file, false);
+            if (store == null)
+                throw new IOException(path + " is not a match store");
+            return store;
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    // The store described by the header of file, or null if the header is
+    // not that of a match store
+    private static MatchStore readHeader(String path, RandomAccessFile file, boolean writable) throws IOException {
+        try {
+            file.seek(0);
+            if (file.readInt() != MAGIC)
+                return null;
+            long seed = file.readLong();
+            int matches = file.readInt();
+            int written = file.readInt();
+            int players = file.readShort();
+            if (matches < 0 || written < 0 || players < 0)
+                return null;
+            String[] names = new String[players];
+            for (int p = 0; p < names.length; p++)
+                names[p] = file.readUTF();
+            return new MatchStore(path, file, seed, names, matches, written, writable);
+        } catch (EOFException | UTFDataFormatException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private long blockOffset(long block) {
+        return DATA_START + block * blockBytes;
+    }
+
+    private void setWritten(int written) throws IOException {
+        this.written = written;
+        file.getChannel().write(ByteBuffer.allocate(4).putInt(0, written), WRITTEN_OFFSET);
+    }
+
+    // Appends the matches of one experiment. Experiments are numbered from 1
+    // and must be appended in order.
+    void experiment(int experimentNum, TournamentExecutor.Results results) throws IOException {
+        if (results.size() != matches)
+            throw new IllegalArgumentException("Experiment has " + results.size() + " matches, store has " + matches);
+        if (experimentNum != written + 1)
+            throw new IllegalArgumentException("Experiment " + experimentNum + " does not follow " + written);
+        // Mapping past the end of the file extends it by the block
+        MappedByteBuffer block = file.getChannel().map(FileChannel.MapMode.READ_WRITE, blockOffset(written),
+                blockBytes);
+        for (int t = 0; t < matches; t++) {
+            block.putInt(columnStart[EXPERIMENT] + 4 * t, experimentNum);
+            block.putFloat(columnStart[SCORE] + 4 * t, results.scores[3 * t]);
+            block.putFloat(columnStart[SCORE + 1] + 4 * t, results.scores[3 * t + 1]);
+            block.putFloat(columnStart[SCORE + 2] + 4 * t, results.scores[3 * t + 2]);
+            block.putShort(columnStart[FIRST] + 2 * t, (short) results.first[t]);
+            block.putShort(columnStart[SECOND] + 2 * t, (short) results.second[t]);
+            block.putShort(columnStart[THIRD] + 2 * t, (short) results.third[t]);
+            block.putShort(columnStart[ROUNDS] + 2 * t, (short) results.rounds[t]);
+        }
+        segments.add(block);
+        setWritten(experimentNum);
+    }
+
+    // Writes every block appended so far to disk, e.g. before a checkpoint
+    void force() throws IOException {
+        for (MappedByteBuffer block : segments)
+            block.force();
+        segments.clear();
+        file.getChannel().force(false);
+    }
+
+    public void close() throws IOException {
+        if (!file.getChannel().isOpen())
+            return;
+        if (writable)
+            force();
+        file.close();
+    }
+
+    long rows() {
+        return (long) matches * written;
+    }
+
+    int experiment(long row) {
+        return segment(row).getInt(offset(EXPERIMENT, row));
+    }
+
+    int first(long row) {
+        return segment(row).getShort(offset(FIRST, row));
+    }
+
+    int second(long row) {
+        return segment(row).getShort(offset(SECOND, row));
+    }
+
+    int third(long row) {
+        return segment(row).getShort(offset(THIRD, row));
+    }
+
+    int rounds(long row) {
+        return segment(row).getShort(offset(ROUNDS, row));
+    }
+
+    float score(long row, int seat) {
+        return segment(row).getFloat(offset(SCORE + seat, row));
+    }
+
+    private MappedByteBuffer segment(long row) {
+        return segments.get((int) (row / matches / blocksPerSegment));
+    }
+
+    // Position of the row's entry in a column, within its segment
+    private int offset(int column, long row) {
+        long block = row / matches;
+        int r = (int) (row - block * matches);
+        return (int) (block % blocksPerSegment) * blockBytes + columnStart[column] + r * WIDTHS[column];
+    }
+
+    // Prints the matches and mean score per match of every strategy.
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java MatchStore <match_store.bin>");
+            System.exit(2);
+        }
+        try (MatchStore store = open(args[0])) {
+            int n = store.names.length;
+            long[] played = new long[n];
+            double[] total = new double[n];
+            // One pass over each seat's player and score columns
+            int[] seatColumn = { FIRST, SECOND, THIRD };
+            for (int seat = 0; seat < 3; seat++) {
+                for (long row = 0; row < store.rows(); row++) {
+                    int player = store.segment(row).getShort(store.offset(seatColumn[seat], row));
+                    played[player]++;
+                    total[player] += store.score(row, seat);
+                }
+            }
+            float[] mean = new float[n];
+            for (int p = 0; p < n; p++)
+                mean[p] = played[p] == 0 ? 0 : (float) (total[p] / played[p]);
+            System.out.println(store.rows() + " matches in " + store.written + " experiments (seed " + store.seed + ")");
+            int[] sortedOrder = TournamentLog.sortedOrder(mean);
+            for (int i = 0; i < n; i++) {
+                int p = sortedOrder[i];
+                System.out.println(store.names[p] + ": " + played[p] + " matches, "
+                        + String.format("%.4f", mean[p]) + " points per match.");
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+/*
+ * The moves of every match of an experiment sweep, run-length encoded
+ * (-Dtournament.trace=true writes experiment_results/move_traces.bin).
+ *
+ * A round's moves are one symbol, A << 2 | B << 1 | C, and a match is a list
+ * of runs of equal symbols. Each run is one byte: the symbol in the top three
+ * bits and the run length minus one in the low five, so a run longer than 32
+ * rounds takes several bytes. Most matches settle into mutual cooperation or
+ * defection within a few rounds, and take a handful of bytes instead of the
+ * 42 that three bits per round would need; a match that changes every round
+ * takes one byte per round.
+ *
+ * Any match can be replayed round by round, with its payoffs:
+ *
+ *   java MoveTraces experiment_results/move_traces.bin <experiment> <i> <j> <k>
+ *
+ * where i, j and k are strategy names or roster indices.
+ *
+ * Layout, big-endian: int MAGIC, long seed, short player count, the names as
+ * modified UTF-8, then for each experiment: int experiment number, int match
+ * count, one unsigned byte per match giving its number of runs, and the runs
+ * of every match in triple order. A resumed sweep keeps the experiments up to
+ * its checkpoint and cuts the file after them.
+ */
+class MoveTraces implements AutoCloseable {
+    static final int MAGIC = 0x54504452; // "TPDR"
+
+    // Longest run one byte holds
+    static final int MAX_RUN = 32;
+
+    final String path;
+    private final FileOutputStream file;
+    private final DataOutputStream out;
+
+    private MoveTraces(String path, FileOutputStream file) {
+        this.path = path;
+        this.file = file;
+        this.out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+    }
+
+    /*
+     * Opens the trace file of a sweep. With resumeAfter > 0 the experiments up
+     * to resumeAfter are kept from an earlier run of the same sweep, and
+     * anything after them is dropped.
+     */
+    static MoveTraces open(String path, String[] names, long seed, int resumeAfter) throws IOException {
+        long keep = resumeAfter > 0 ? lengthThrough(path, names, seed, resumeAfter) : -1;
+        if (keep >= 0) {
+            FileOutputStream file = new FileOutputStream(path, true);
+            file.getChannel().truncate(keep);
+            return new MoveTraces(path, file);
+        }
+        MoveTraces traces = new MoveTraces(path, new FileOutputStream(path));
+        traces.out.writeInt(MAGIC);
+        traces.out.writeLong(seed);
+        traces.out.writeShort(names.length);
+        for (String name : names)
+            traces.out.writeUTF(name);
+        return traces;
+    }
+
+    // Length of the file up to the end of experiment last, or -1 if it is
+    // not a trace file of this sweep or does not reach that far
+    private static long lengthThrough(String path, String[] names, long seed, int last) throws IOException {
+        if (!new File(path).exists())
+            return -1;
+        try (RandomAccessFile in = new RandomAccessFile(path, "r")) {
+            if (in.readInt() != MAGIC || in.readLong() != seed || in.readShort() != names.length)
+                return -1;
+            for (String name : names)
+                if (!in.readUTF().equals(name))
+                    return -1;
+            while (true) {
+                int experimentNum = in.readInt();
+                long runs = 0;
+                byte[] counts = new byte[in.readInt()];
+                in.readFully(counts);
+                for (byte count : counts)
+                    runs += count & 0xff;
+                in.seek(in.getFilePointer() + runs);
+                if (in.getFilePointer() > in.length())
+                    return -1;
+                if (experimentNum == last)
+                    return in.getFilePointer();
+            }
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+
+    // Appends the traces of one experiment
+    void experiment(int experimentNum, TournamentExecutor.Results results) throws IOException {
+        out.writeInt(experimentNum);
+        out.writeInt(results.size());
+        for (int t = 0; t < results.size(); t++)
+            out.writeByte(results.traces[t].length);
+        for (int t = 0; t < results.size(); t++)
+            out.write(results.traces[t]);
+    }
+
+    // Writes everything appended so far to disk, e.g. before a checkpoint
+    void force() throws IOException {
+        out.flush();
+        file.getChannel().force(false);
+    }
+
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // Run-length encodes the first rounds symbols of moves
+    static byte[] encode(int[] moves, int rounds) {
+        byte[] runs = new byte[rounds];
+        int count = 0;
+        for (int r = 0; r < rounds;) {
+            int symbol = moves[r], length = 1;
+            while (r + length < rounds && moves[r + length] == symbol && length < MAX_RUN)
+                length++;
+            runs[count++] = (byte) (symbol << 5 | (length - 1));
+            r += length;
+        }
+        return Arrays.copyOf(runs, count);
+    }
+
+    // The symbol of every round of an encoded match
+    static int[] decode(byte[] runs) {
+        int rounds = 0;
+        for (byte run : runs)
+            rounds += (run & 31) + 1;
+        int[] moves = new int[rounds];
+        int r = 0;
+        for (byte run : runs)
+            for (int n = (run & 31) + 1; n > 0; n--)
+                moves[r++] = (run & 0xff) >>> 5;
+        return moves;
+    }
+
+    // Replays one match of a trace file round by round.
+    public static void main(String[] args) throws IOException {
+        if (args.length != 5) {
+            System.err.println("Usage: java MoveTraces <move_traces.bin> <experiment> <i> <j> <k>");
+            System.exit(2);
+        }
+        int experiment = Integer.parseInt(args[1]);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(args[0])))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException(args[0] + " is not a move trace file");
+            long seed = in.readLong();
+            String[] names = new String[in.readShort()];
+            for (int p = 0; p < names.length; p++)
+                names[p] = in.readUTF();
+            int[] seats = new int[3];
+            for (int seat = 0; seat < 3; seat++)
+                seats[seat] = player(names, args[2 + seat]);
+            Arrays.sort(seats);
+
+            // The match's place in the i <= j <= k order of every experiment
+            int target = 0;
+            for (int i = 0; i < names.length; i++)
+                for (int j = i; j < names.length; j++)
+                    for (int k = j; k < names.length; k++)
+                        if (i < seats[0] || i == seats[0] && (j < seats[1] || j == seats[1] && k < seats[2]))
+                            target++;
+
+            while (true) {
+                int experimentNum;
+                try {
+                    experimentNum = in.readInt();
+                } catch (EOFException e) {
+                    throw new IOException("Experiment " + experiment + " is not in " + args[0]);
+                }
+                byte[] counts = new byte[in.readInt()];
+                in.readFully(counts);
+                long before = 0, total = 0;
+                for (int t = 0; t < counts.length; t++) {
+                    if (t == target)
+                        before = total;
+                    total += counts[t] & 0xff;
+                }
+                if (experimentNum != experiment) {
+                    in.skipNBytes(total);
+                    continue;
+                }
+                in.skipNBytes(before);
+                byte[] runs = new byte[counts[target] & 0xff];
+                in.readFully(runs);
+                replay(seed, experiment, names, seats, decode(runs));
+                return;
+            }
+        }
+    }
+
+    // A player given by name or by index
+    private static int player(String[] names, String arg) {
+        for (int p = 0; p < names.length; p++)
+            if (names[p].equals(arg))
+                return p;
+        try {
+            int p = Integer.parseInt(arg);
+            if (p >= 0 && p < names.length)
+                return p;
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException("Unknown player " + arg);
+    }
+
+    private static void replay(long seed, int experiment, String[] names, int[] seats, int[] moves) {
+        int[][][] payoff = ThreePrisonersDilemma.payoff;
+        String a = names[seats[0]], b = names[seats[1]], c = names[seats[2]];
+        System.out.println("Experiment #" + experiment + " (seed " + seed + "): " + a + ", " + b + " and " + c);
+        System.out.println("Round " + a + " " + b + " " + c + " payoffs");
+        int scoreA = 0, scoreB = 0, scoreC = 0;
+        for (int r = 0; r < moves.length; r++) {
+            int playA = moves[r] >>> 2, playB = moves[r] >>> 1 & 1, playC = moves[r] & 1;
+            int payA = payoff[playA][playB][playC], payB = payoff[playB][playC][playA],
+                    payC = payoff[playC][playA][playB];
+            scoreA += payA;
+            scoreB += payB;
+            scoreC += payC;
+            System.out.println((r + 1) + " " + "CD".charAt(playA) + " " + "CD".charAt(playB) + " "
+                    + "CD".charAt(playC) + " " + payA + " " + payB + " " + payC);
+        }
+        System.out.println(a + " scored " + (float) scoreA / moves.length + " points, " + b + " scored "
+                + (float) scoreB / moves.length + " points, and " + c + " scored " + (float) scoreC / moves.length
+                + " points. (Rounds: " + moves.length + ")");
+    }
+}
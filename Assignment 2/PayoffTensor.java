@@ -0,0 +1,167 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/*
+ * Expected per-round score of every strategy against every pair of opponents.
+ *
+ * get(i, j, k) is what strategy i expects to score in a match against j and
+ * k. Opponents are treated as unordered: compute averages i's score over
+ * both orders of j and k, and over every seat where i sits in more than one
+ * seat of a triple, so get(i, j, k) == get(i, k, j). This is a modelling
+ * choice, not a property of the payoffs. A strategy may tell its two
+ * opponents apart, which is why the tournament itself keeps seats in order
+ * (see TournamentExecutor); the population models that use this tensor
+ * draw opponents without seats, so they take the average.
+ *
+ * The tensor is filled from TournamentExecutor.expected, so each triple is
+ * computed once (exactly where the strategies have StochasticMachines) and
+ * in parallel on the executor's pool. It is saved next to the results and
+ * reused while its fingerprint matches: the strategy names, the payoffs, the
+ * round counts, every strategy's machine tables, and the seed and sample
+ * count when some triple has to be sampled. Changing a strategy without a
+ * machine is not detected; delete the file after doing so.
+ */
+final class PayoffTensor {
+    static final int MAGIC = 0x54504454; // "TPDT"
+
+    final int size;
+    final double[] values; // values[(i * size + j) * size + k]
+
+    PayoffTensor(int size, double[] values) {
+        this.size = size;
+        this.values = values;
+    }
+
+    double get(int i, int j, int k) {
+        return values[(i * size + j) * size + k];
+    }
+
+    // Expected score of each strategy against two opponents drawn
+    // independently from the population shares x.
+    void fitness(double[] x, double[] fitness) {
+        double[] versus = new double[size];
+        for (int i = 0; i < size; i++) {
+            // Contract over the second opponent first, then the first one
+            int base = i * size * size;
+            for (int j = 0; j < size; j++) {
+                double sum = 0;
+                for (int k = 0; k < size; k++)
+                    sum += values[base + j * size + k] * x[k];
+                versus[j] = sum;
+            }
+            double f = 0;
+            for (int j = 0; j < size; j++)
+                f += versus[j] * x[j];
+            fitness[i] = f;
+        }
+    }
+
+    static PayoffTensor compute(TournamentExecutor executor, long seed) {
+        int n = executor.numPlayers;
+        double[] sums = new double[n * n * n];
+        int[] counts = new int[n * n * n];
+        TournamentExecutor.Results results = executor.expected(seed);
+        for (int t = 0; t < results.size(); t++) {
+            int[] seats = { results.first[t], results.second[t], results.third[t] };
+            for (int seat = 0; seat < 3; seat++) {
+                int p = seats[seat], q = seats[(seat + 1) % 3], r = seats[(seat + 2) % 3];
+                double score = results.score(t, seat);
+                sums[(p * n + q) * n + r] += score;
+                counts[(p * n + q) * n + r]++;
+                if (q != r) {
+                    sums[(p * n + r) * n + q] += score;
+                    counts[(p * n + r) * n + q]++;
+                }
+            }
+        }
+        for (int cell = 0; cell < sums.length; cell++)
+            sums[cell] /= counts[cell];
+        return new PayoffTensor(n, sums);
+    }
+
+    /*
+     * Loads the tensor for this executor's strategies from file if it was
+     * saved with the same fingerprint, and otherwise computes and saves it.
+     */
+    static PayoffTensor cached(TournamentExecutor executor, long seed, File file) throws IOException {
+        long fingerprint = fingerprint(executor, seed);
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() == MAGIC && in.readLong() == fingerprint) {
+                    int size = in.readInt();
+                    double[] values = new double[size * size * size];
+                    for (int cell = 0; cell < values.length; cell++)
+                        values[cell] = in.readDouble();
+                    System.out.println("Payoff tensor loaded from: " + file);
+                    return new PayoffTensor(size, values);
+                }
+            }
+        }
+
+        PayoffTensor tensor = compute(executor, seed);
+        // Write to a temporary file first so that an interrupted run never
+        // leaves a truncated tensor behind
+        File temporary = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(fingerprint);
+            out.writeInt(tensor.size);
+            for (double value : tensor.values)
+                out.writeDouble(value);
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Payoff tensor saved to: " + file);
+        return tensor;
+    }
+
+    // Hash of everything the tensor's values depend on
+    static long fingerprint(TournamentExecutor executor, long seed) {
+        long h = Rng.mix(0, executor.numPlayers);
+        for (int w = 0; w < executor.numPlayers; w++) {
+            String name = executor.factory.name(w);
+            h = Rng.mix(h, name.length());
+            for (int c = 0; c < name.length(); c++)
+                h = Rng.mix(h, name.charAt(c));
+        }
+        for (int[][] plane : executor.payoff)
+            for (int[] row : plane)
+                for (int value : row)
+                    h = Rng.mix(h, value);
+        for (double p : TournamentExecutor.roundsDistribution())
+            h = mix(h, p);
+        boolean sampled = false;
+        for (StochasticMachine machine : executor.stochasticMachines()) {
+            if (machine == null) {
+                sampled = true;
+                h = Rng.mix(h, -1);
+                continue;
+            }
+            for (double p : machine.initial)
+                h = mix(h, p);
+            for (double p : machine.defect)
+                h = mix(h, p);
+            for (int next : machine.next)
+                h = Rng.mix(h, next);
+        }
+        if (sampled)
+            h = Rng.mix(mix(h, seed), TournamentExecutor.EXPECTED_SAMPLES);
+        return h;
+    }
+
+    private static long mix(long h, double value) {
+        return mix(h, Double.doubleToLongBits(value));
+    }
+
+    private static long mix(long h, long bits) {
+        return Rng.mix64(h ^ bits * Rng.GOLDEN_GAMMA);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Base class for every strategy in the tournament. It used to be copied as an
+ * inner class into each tournament program; it now lives here so that
+ * ThreePrisonersDilemma and the experiment programs can share one MatchEngine.
+ *
+ * A strategy can be written in one of two ways:
+ *
+ * - Event-driven: override nextAction(n) and onRoundResult. The engine
+ * reports every round's actions through onRoundResult, so the strategy keeps
+ * whatever running state it needs and picks each move without looking at the
+ * histories again. All built-in strategies work this way.
+ *
+ * - History-based: override selectAction, which receives the full histories
+ * every round, as in the original assignment. The default nextAction bridges
+ * to it using the histories the engine binds before the match.
+ */
+abstract class Player {
+    // Returned by stateKey when a strategy's state is not finite
+    static final long NO_STATE = -1;
+
+    // Histories of the current match, bound by the engine for history-based strategies
+    BitHistory myHistory, oppHistory1, oppHistory2;
+
+    // Payoffs of the current match, bound by the engine
+    private GroupPayoff payoff;
+
+    // This procedure takes in the number of rounds elapsed so far (n), and
+    // the previous plays in the match, and returns the appropriate action.
+    // Only the first n entries of each history are valid: the arrays are
+    // reused buffers and may be longer than n.
+    int selectAction(int n, int[] myHistory, int[] oppHistory1, int[] oppHistory2) {
+        throw new RuntimeException("You need to override the selectAction method.");
+    }
+
+    // The same decision made on bit-packed histories. By default it hands
+    // the int[] views of the histories to the method above; strategies that
+    // only need counts or recent rounds can override this instead and skip
+    // the int[] copies.
+    int selectAction(int n, BitHistory myHistory, BitHistory oppHistory1, BitHistory oppHistory2) {
+        return selectAction(n, myHistory.ints(), oppHistory1.ints(), oppHistory2.ints());
+    }
+
+    // Returns the action for round n. Event-driven strategies override this;
+    // the default asks selectAction using the bound histories.
+    int nextAction(int n) {
+        return selectAction(n, myHistory, oppHistory1, oppHistory2);
+    }
+
+    // Called by the engine after every round with the actions just played.
+    void onRoundResult(int myMove, int opp1Move, int opp2Move) {
+    }
+
+    // Gives a history-based strategy access to the histories of its match.
+    void bind(BitHistory myHistory, BitHistory oppHistory1, BitHistory oppHistory2) {
+        this.myHistory = myHistory;
+        this.oppHistory1 = oppHistory1;
+        this.oppHistory2 = oppHistory2;
+    }
+
+    // Gives the strategy the payoffs of its match. Every engine binds them
+    // before the first round, with the histories where it keeps any.
+    void bind(GroupPayoff payoff) {
+        this.payoff = payoff;
+    }
+
+    // The payoffs of the current match, for strategies that judge their
+    // rounds by what they scored
+    GroupPayoff payoff() {
+        if (payoff == null)
+            throw new IllegalStateException("No payoffs bound to " + name());
+        return payoff;
+    }
+
+    // Whether this strategy never draws random numbers, so that its actions
+    // depend only on the round number and the actions played so far.
+    // Matches between three deterministic players are cached.
+    boolean isDeterministic() {
+        return false;
+    }
+
+    // For a deterministic strategy: a key shared by every strategy that plays
+    // exactly as it does against any opponents, e.g. copies of one strategy
+    // under different names. The tournament plays a match between such
+    // strategies once and reuses its scores for every copy. null declares no
+    // equivalence; random strategies are never merged.
+    String equivalenceKey() {
+        return null;
+    }
+
+    // For a deterministic strategy with finite memory: a number below 2^21
+    // that, together with the opponents' keys, determines every action this
+    // strategy will take from round n on. n is the number of rounds played so
+    // far, so strategies whose behaviour depends on the round number can fold
+    // it in. The MatchEngine uses these keys to spot when a match has become
+    // periodic. Strategies without such a state return NO_STATE.
+    long stateKey(int n) {
+        return NO_STATE;
+    }
+
+    // For a random strategy with finitely many states: the Markov machine
+    // that plays exactly as it does, for exact expected scores. Deterministic
+    // strategies are converted from their stateKey and need not override this.
+    StochasticMachine stochasticMachine() {
+        return null;
+    }
+
+    // Used to extract the name of this player class.
+    String name() {
+        String result = getClass().getName();
+        return result.substring(result.indexOf('$') + 1);
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.SplittableRandom;
+
+/*
+ * Evolution of a population of strategies under a PayoffTensor.
+ *
+ * Every individual plays matches against two opponents drawn from the
+ * population, so its fitness is the tensor contracted with the population
+ * twice. A generation costs a few contractions of the tensor and never
+ * simulates a match.
+ *
+ * replicatorStep follows the discrete replicator dynamics of an infinite
+ * population: each strategy's share grows in proportion to its fitness
+ * relative to the population mean.
+ *
+ * Moran is a finite population of fixed size. In each step one individual,
+ * chosen with probability proportional to its fitness, reproduces and one
+ * chosen uniformly at random dies, until a single strategy is left.
+ */
+final class PopulationDynamics {
+    private PopulationDynamics() {
+    }
+
+    // Shares of the next generation. Payoffs are positive, so shares stay
+    // positive and keep summing to one.
+    static double[] replicatorStep(PayoffTensor tensor, double[] shares) {
+        double[] fitness = new double[shares.length];
+        tensor.fitness(shares, fitness);
+        double mean = 0;
+        for (int i = 0; i < shares.length; i++)
+            mean += shares[i] * fitness[i];
+        double[] next = new double[shares.length];
+        for (int i = 0; i < shares.length; i++)
+            next[i] = shares[i] * fitness[i] / mean;
+        return next;
+    }
+
+    static final class Moran {
+        final PayoffTensor tensor;
+        final int[] counts;
+        final int populationSize;
+        final SplittableRandom random;
+
+        private final double[] share, fitness;
+
+        Moran(PayoffTensor tensor, int[] counts, long seed) {
+            this.tensor = tensor;
+            this.counts = counts.clone();
+            int total = 0;
+            for (int count : counts)
+                total += count;
+            this.populationSize = total;
+            this.random = new SplittableRandom(seed);
+            share = new double[counts.length];
+            fitness = new double[counts.length];
+        }
+
+        // Whether only one strategy is left
+        boolean fixated() {
+            for (int count : counts)
+                if (count == populationSize)
+                    return true;
+            return false;
+        }
+
+        /*
+         * Fitness of an individual of each strategy. Its opponents are two
+         * distinct other members of the population, so its own strategy
+         * counts one less, and the two opponents are drawn without
+         * replacement.
+         */
+        void fitness(double[] out) {
+            int n = counts.length;
+            for (int i = 0; i < n; i++)
+                share[i] = counts[i];
+            // sum over j, k of T[i][j][k] * c[j] * c[k]
+            tensor.fitness(share, out);
+            double pairs = (double) (populationSize - 1) * (populationSize - 2);
+            for (int i = 0; i < n; i++) {
+                if (counts[i] == 0)
+                    continue;
+                // Take i out of the counts (c - e_i), then drop the cases
+                // where both opponents are the same individual. The tensor
+                // does not depend on the opponents' order, so taking i out
+                // of either opponent removes the same amount
+                double sameSelf = 0, repeated = 0;
+                for (int k = 0; k < n; k++) {
+                    sameSelf += tensor.get(i, i, k) * counts[k];
+                    repeated += tensor.get(i, k, k) * (counts[k] - (k == i ? 1 : 0));
+                }
+                out[i] = (out[i] - 2 * sameSelf + tensor.get(i, i, i) - repeated) / pairs;
+            }
+        }
+
+        // One birth and one death
+        void step() {
+            fitness(fitness);
+            double total = 0;
+            for (int i = 0; i < counts.length; i++)
+                total += counts[i] * fitness[i];
+            int parent = pick(random.nextDouble() * total, true);
+            int dying = pick(random.nextInt(populationSize), false);
+            counts[parent]++;
+            counts[dying]--;
+        }
+
+        // The strategy whose cumulative weight first exceeds target, weighted
+        // by count times fitness or by count alone
+        private int pick(double target, boolean byFitness) {
+            int last = -1;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0)
+                    continue;
+                last = i;
+                target -= byFitness ? counts[i] * fitness[i] : counts[i];
+                if (target < 0)
+                    return i;
+            }
+            return last; // Only reached through rounding in the last weight
+        }
+    }
+}
@@ -0,0 +1,133 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * A tournament between a population given as strategy counts instead of
+ * cloned roster slots.
+ *
+ * ThreePrisonersDilemmaExperimentDefect models a population of defectors
+ * with 14 copies of NastyPlayer, and so plays C(20, 3) = 1140 triples. Here
+ * the population is -Dtournament.population=<name>:<count>,..., e.g.
+ * NastyPlayer:14,StandardT4TPlayer (a count of 1 may be left out, and
+ * "default" adds one of each default strategy). Only the distinct
+ * strategies are played: their expected scores against every pair of
+ * opponents are computed once into a PayoffTensor, and each individual's
+ * score follows from the counts. A population of 10,000 individuals of 18
+ * strategies costs what 18 strategies cost.
+ *
+ * The score of an individual is its expected total in a tournament where
+ * every individual has a slot of its own: the sum over every triple of slots
+ * that includes it, once for each seat it takes. Summing over the other two
+ * seats as a multiset {y, z} of the N slots, an individual x of strategy a
+ * scores T[a][y][z] once, plus once more for each of y and z that is x
+ * itself. With c the counts this comes to
+ *
+ *   (sum_bc c_b c_c T[a][b][c] + sum_b c_b T[a][b][b]) / 2
+ *     + sum_c c_c T[a][a][c] + T[a][a][a]
+ *
+ * which for the defect line-up gives the totals of
+ * ThreePrisonersDilemmaExperimentDefect with -Dtournament.expected=true
+ * (up to the averaging of seats in the tensor).
+ */
+public class PopulationTournament {
+    // The line-up of ThreePrisonersDilemmaExperimentDefect
+    static final String DEFECT_POPULATION =
+            "NastyPlayer:14,StandardT4TPlayer,StandardT42TPlayer,StandardT43TPlayer,StandardT44TPlayer";
+
+    final Tournament tournament;
+    final int[] counts;
+
+    PopulationTournament(StrategyRegistry strategies, String spec) {
+        Map<String, Integer> population = parse(strategies, spec);
+        tournament = new Tournament(strategies.roster(String.join(",", population.keySet())));
+        tournament.verbose = false;
+        counts = new int[population.size()];
+        int i = 0;
+        for (int count : population.values())
+            counts[i++] = count;
+    }
+
+    // Strategy names and their counts, in the order first named. A strategy
+    // named twice has its counts added.
+    static Map<String, Integer> parse(StrategyRegistry strategies, String spec) {
+        Map<String, Integer> population = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            entry = entry.trim();
+            int colon = entry.lastIndexOf(':');
+            String name = colon < 0 ? entry : entry.substring(0, colon).trim();
+            if (name.isEmpty())
+                throw new IllegalArgumentException("Missing strategy name in tournament.population: " + spec);
+            int count;
+            try {
+                count = colon < 0 ? 1 : Integer.parseInt(entry.substring(colon + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad count in tournament.population: " + entry);
+            }
+            if (count < 1)
+                throw new IllegalArgumentException("Counts in tournament.population must be positive: " + entry);
+            // Checks the names and expands "default"
+            for (String strategy : strategies.roster(name).names())
+                population.merge(strategy, count, Integer::sum);
+        }
+        return population;
+    }
+
+    int populationSize() {
+        int total = 0;
+        for (int count : counts)
+            total += count;
+        return total;
+    }
+
+    // Expected total score of one individual of each strategy
+    double[] individualScores(PayoffTensor tensor) {
+        int n = counts.length;
+        double[] weights = new double[n];
+        for (int b = 0; b < n; b++)
+            weights[b] = counts[b];
+        double[] versusAll = new double[n];
+        tensor.fitness(weights, versusAll); // sum_bc c_b c_c T[a][b][c]
+        double[] scores = new double[n];
+        for (int a = 0; a < n; a++) {
+            double doubles = 0, withSelf = 0;
+            for (int b = 0; b < n; b++) {
+                doubles += counts[b] * tensor.get(a, b, b);
+                withSelf += counts[b] * tensor.get(a, a, b);
+            }
+            scores[a] = (versusAll[a] + doubles) / 2 + withSelf + tensor.get(a, a, a);
+        }
+        return scores;
+    }
+
+    void run() {
+        String[] names = tournament.playerNames();
+        PayoffTensor tensor = PayoffTensor.compute(tournament.executor(), tournament.seed);
+        double[] scores = individualScores(tensor);
+
+        int[] sortedOrder = new int[scores.length];
+        // Sort strategies by score
+        for (int i = 0; i < scores.length; i++) {
+            int j = i - 1;
+            for (; j >= 0; j--) {
+                if (scores[i] > scores[sortedOrder[j]])
+                    sortedOrder[j + 1] = sortedOrder[j];
+                else
+                    break;
+            }
+            sortedOrder[j + 1] = i;
+        }
+
+        System.out.println("Expected Population Results (" + populationSize() + " individuals, seed "
+                + tournament.seed + ")");
+        for (int i = 0; i < scores.length; i++) {
+            int w = sortedOrder[i];
+            System.out.println(names[w] + " (x" + counts[w] + "): " + String.format("%.4f", scores[w])
+                    + " points each.");
+        }
+    }
+
+    public static void main(String[] args) {
+        String spec = System.getProperty("tournament.population", DEFECT_POPULATION);
+        new PopulationTournament(Strategies.standard(), spec).run();
+    }
+}
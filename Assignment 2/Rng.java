@@ -0,0 +1,77 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Source of random numbers for the strategies and the round counts, used in
+ * place of Math.random().
+ *
+ * Math.random() draws from one shared generator, so threads contend on it and
+ * no run can be reproduced. Here every match gets its own SplittableRandom
+ * stream, whose seed is derived from the experiment seed and the (i, j, k)
+ * triple. A match therefore plays out the same way no matter which thread
+ * runs it or in which order the triples are played.
+ *
+ * The stream is bound to the current thread between beginMatch and endMatch.
+ * Outside a match random() falls back to ThreadLocalRandom.
+ */
+final class Rng {
+    // Odd constant used by SplittableRandom to step between seeds
+    static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static final ThreadLocal<SplittableRandom> current = new ThreadLocal<>();
+
+    private Rng() {
+    }
+
+    // Returns a uniformly distributed double in [0, 1), like Math.random().
+    static double random() {
+        SplittableRandom random = current.get();
+        if (random == null)
+            return ThreadLocalRandom.current().nextDouble();
+        return random.nextDouble();
+    }
+
+    // Binds the stream of match (i, j, k) to the current thread.
+    static void beginMatch(long seed, int i, int j, int k) {
+        current.set(new SplittableRandom(matchSeed(seed, i, j, k)));
+    }
+
+    // Binds the stream of the group match of players[from .. from + size) to
+    // the current thread. For three players it is the stream of beginMatch.
+    static void beginMatch(long seed, int[] players, int from, int size) {
+        long matchSeed = seed;
+        for (int p = from; p < from + size; p++)
+            matchSeed = mix(matchSeed, players[p]);
+        current.set(new SplittableRandom(matchSeed));
+    }
+
+    static void endMatch() {
+        current.remove();
+    }
+
+    // Seed of the stream for match (i, j, k) of the experiment with the given seed.
+    static long matchSeed(long seed, int i, int j, int k) {
+        return mix(mix(mix(seed, i), j), k);
+    }
+
+    // Seed of experiment number experimentNum in a sweep with the given seed.
+    static long experimentSeed(long seed, int experimentNum) {
+        return mix(seed, experimentNum);
+    }
+
+    // A seed that differs from run to run, for when no seed was given.
+    static long randomSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    static long mix(long seed, int value) {
+        return mix64(seed + (value + 1) * GOLDEN_GAMMA);
+    }
+
+    // The 64-bit finalizer of SplittableRandom (Stafford's variant 13).
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
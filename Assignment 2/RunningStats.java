@@ -0,0 +1,247 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/*
+ * Summary statistics of a stream of scores, updated one sample at a time in
+ * constant memory.
+ *
+ * Mean and variance use Welford's update, which stays accurate over long
+ * streams where summing squares would cancel. The 5th, 50th and 95th
+ * percentiles are estimated with the P-square algorithm of Jain and Chlamtac
+ * (1985), which tracks five markers per quantile instead of the samples.
+ */
+final class RunningStats {
+    long count;
+    double mean;
+    double m2; // Sum of squared differences from the mean
+    double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+
+    final Quantile p5 = new Quantile(0.05), median = new Quantile(0.5), p95 = new Quantile(0.95);
+
+    void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+        min = Math.min(min, x);
+        max = Math.max(max, x);
+        p5.add(x);
+        median.add(x);
+        p95.add(x);
+    }
+
+    long count() {
+        return count;
+    }
+
+    double mean() {
+        return mean;
+    }
+
+    // Sample variance, 0 until there are two samples
+    double variance() {
+        return count > 1 ? m2 / (count - 1) : 0;
+    }
+
+    double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    double standardError() {
+        return count > 0 ? Math.sqrt(variance() / count) : 0;
+    }
+
+    // Half width of the two-sided confidence interval of the mean at the given
+    // level (e.g. 0.95), from Student's t distribution. Infinite below two samples.
+    double confidenceHalfWidth(double level) {
+        if (count < 2)
+            return Double.POSITIVE_INFINITY;
+        return studentQuantile(0.5 + level / 2, count - 1) * standardError();
+    }
+
+    // Saves the whole state, for Checkpoint
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeDouble(mean);
+        out.writeDouble(m2);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        p5.writeTo(out);
+        median.writeTo(out);
+        p95.writeTo(out);
+    }
+
+    // Restores the state saved by writeTo
+    void readFrom(DataInput in) throws IOException {
+        count = in.readLong();
+        mean = in.readDouble();
+        m2 = in.readDouble();
+        min = in.readDouble();
+        max = in.readDouble();
+        p5.readFrom(in);
+        median.readFrom(in);
+        p95.readFrom(in);
+    }
+
+    /*
+     * Streaming estimate of one quantile (P-square). The first five samples
+     * are kept as they are; after that five markers hold the minimum, the
+     * maximum, the quantile and the two quantiles halfway to the ends, and are
+     * moved towards their ideal positions with a piecewise-parabolic fit.
+     */
+    static final class Quantile {
+        final double p;
+        final double[] height = new double[5];
+        final int[] position = { 1, 2, 3, 4, 5 };
+        final double[] desired;
+        final double[] increment;
+        int count;
+
+        Quantile(double p) {
+            this.p = p;
+            desired = new double[] { 1, 1 + 2 * p, 1 + 4 * p, 3 + 2 * p, 5 };
+            increment = new double[] { 0, p / 2, p, (1 + p) / 2, 1 };
+        }
+
+        void add(double x) {
+            if (count < 5) {
+                height[count++] = x;
+                if (count == 5)
+                    Arrays.sort(height);
+                return;
+            }
+            count++;
+
+            // Cell the sample falls into
+            int k;
+            if (x < height[0]) {
+                height[0] = x;
+                k = 0;
+            } else if (x >= height[4]) {
+                height[4] = x;
+                k = 3;
+            } else {
+                k = 0;
+                while (x >= height[k + 1])
+                    k++;
+            }
+            for (int i = k + 1; i < 5; i++)
+                position[i]++;
+            for (int i = 0; i < 5; i++)
+                desired[i] += increment[i];
+
+            // Move the middle markers that are off by at least one position
+            for (int i = 1; i < 4; i++) {
+                double d = desired[i] - position[i];
+                if ((d >= 1 && position[i + 1] - position[i] > 1) || (d <= -1 && position[i - 1] - position[i] < -1)) {
+                    int step = d > 0 ? 1 : -1;
+                    double h = parabolic(i, step);
+                    if (height[i - 1] < h && h < height[i + 1])
+                        height[i] = h;
+                    else
+                        height[i] += step * (height[i + step] - height[i]) / (position[i + step] - position[i]);
+                    position[i] += step;
+                }
+            }
+        }
+
+        double parabolic(int i, int step) {
+            return height[i] + (double) step / (position[i + 1] - position[i - 1])
+                    * ((position[i] - position[i - 1] + step) * (height[i + 1] - height[i])
+                            / (position[i + 1] - position[i])
+                            + (position[i + 1] - position[i] - step) * (height[i] - height[i - 1])
+                                    / (position[i] - position[i - 1]));
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            out.writeInt(count);
+            for (int i = 0; i < 5; i++) {
+                out.writeDouble(height[i]);
+                out.writeInt(position[i]);
+                out.writeDouble(desired[i]);
+            }
+        }
+
+        void readFrom(DataInput in) throws IOException {
+            count = in.readInt();
+            for (int i = 0; i < 5; i++) {
+                height[i] = in.readDouble();
+                position[i] = in.readInt();
+                desired[i] = in.readDouble();
+            }
+        }
+
+        // The estimate; exact (interpolated) while there are five samples or fewer
+        double value() {
+            if (count == 0)
+                return Double.NaN;
+            if (count <= 5) {
+                double[] sorted = Arrays.copyOf(height, count);
+                Arrays.sort(sorted);
+                double rank = p * (count - 1);
+                int below = (int) rank;
+                if (below == count - 1)
+                    return sorted[below];
+                return sorted[below] + (rank - below) * (sorted[below + 1] - sorted[below]);
+            }
+            return height[2];
+        }
+    }
+
+    /*
+     * Quantile function of the standard normal distribution, by Acklam's
+     * rational approximation (relative error below 1.2e-9).
+     */
+    static double normalQuantile(double p) {
+        if (p <= 0)
+            return Double.NEGATIVE_INFINITY;
+        if (p >= 1)
+            return Double.POSITIVE_INFINITY;
+        final double[] a = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+        final double[] b = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01 };
+        final double[] c = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+        final double[] d = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00 };
+        double q, r;
+        if (p < 0.02425) {
+            q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - 0.02425) {
+            q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        q = p - 0.5;
+        r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    /*
+     * Quantile function of Student's t distribution with df degrees of
+     * freedom. Exact for one and two degrees of freedom, otherwise the
+     * Cornish-Fisher expansion around the normal quantile (Abramowitz and
+     * Stegun 26.7.5), which is within 0.2% from three degrees of freedom on
+     * and within 0.01% from five on.
+     */
+    static double studentQuantile(double p, long df) {
+        if (df == 1)
+            return Math.tan(Math.PI * (p - 0.5));
+        if (df == 2)
+            return (2 * p - 1) / Math.sqrt(2 * p * (1 - p));
+        double z = normalQuantile(p);
+        double z2 = z * z, v = df;
+        double g1 = (z2 + 1) * z / 4;
+        double g2 = ((5 * z2 + 16) * z2 + 3) * z / 96;
+        double g3 = (((3 * z2 + 19) * z2 + 17) * z2 - 15) * z / 384;
+        double g4 = ((((79 * z2 + 776) * z2 + 1482) * z2 - 1920) * z2 - 945) * z / 92160;
+        return z + g1 / v + g2 / (v * v) + g3 / (v * v * v) + g4 / (v * v * v * v);
+    }
+}
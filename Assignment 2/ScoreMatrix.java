@@ -0,0 +1,122 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/*
+ * The total score of every strategy in every experiment of a sweep.
+ *
+ * Scores are kept in one float[] row per strategy, indexed by strategy id
+ * (the roster index) and experiment, so recording an experiment stores
+ * primitives only. Names are looked up once when the matrix is created.
+ * Rows grow by doubling if more experiments are recorded than planned.
+ *
+ * Every strategy also has a RunningStats that is updated as experiments are
+ * recorded, and averages are read from it. A matrix created with keepScores
+ * false keeps only those statistics, so a sweep of any length runs in
+ * constant memory, but score(s, e) is then unavailable.
+ */
+final class ScoreMatrix {
+    final String[] names;
+    final RunningStats[] stats;
+    private float[][] scores; // null when scores are not kept
+    private int experiments;
+
+    ScoreMatrix(String[] names, int expectedExperiments, boolean keepScores) {
+        this.names = names.clone();
+        stats = new RunningStats[names.length];
+        for (int s = 0; s < names.length; s++) {
+            this.names[s] = names[s].intern();
+            stats[s] = new RunningStats();
+        }
+        if (keepScores)
+            scores = new float[names.length][Math.max(1, expectedExperiments)];
+    }
+
+    // Records the total score of each strategy in the next experiment.
+    void add(float[] totalScore) {
+        for (int s = 0; s < names.length; s++)
+            stats[s].add(totalScore[s]);
+        if (scores != null) {
+            if (experiments == scores[0].length)
+                for (int s = 0; s < scores.length; s++)
+                    scores[s] = Arrays.copyOf(scores[s], 2 * experiments);
+            for (int s = 0; s < scores.length; s++)
+                scores[s][experiments] = totalScore[s];
+        }
+        experiments++;
+    }
+
+    // Whether score(s, e) can be read
+    boolean keepsScores() {
+        return scores != null;
+    }
+
+    int strategies() {
+        return names.length;
+    }
+
+    // Number of experiments recorded so far
+    int experiments() {
+        return experiments;
+    }
+
+    // Score of strategy s in experiment e, counting experiments from 0
+    float score(int s, int e) {
+        return scores[s][e];
+    }
+
+    // Mean score of each strategy
+    double[] averages() {
+        double[] averages = new double[names.length];
+        for (int s = 0; s < names.length; s++)
+            averages[s] = stats[s].mean();
+        return averages;
+    }
+
+    // Highest score of any strategy in any experiment
+    float max() {
+        double max = 0;
+        for (int s = 0; s < names.length; s++)
+            max = Math.max(max, stats[s].max);
+        return (float) max;
+    }
+
+    // Saves the recorded experiments, for Checkpoint
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(experiments);
+        for (RunningStats s : stats)
+            s.writeTo(out);
+        if (scores != null)
+            for (float[] row : scores)
+                for (int e = 0; e < experiments; e++)
+                    out.writeFloat(row[e]);
+    }
+
+    // Restores the experiments saved by writeTo into a matrix of the same
+    // strategies and keepScores setting
+    void readFrom(DataInput in) throws IOException {
+        experiments = in.readInt();
+        for (RunningStats s : stats)
+            s.readFrom(in);
+        if (scores != null)
+            for (int s = 0; s < scores.length; s++) {
+                if (scores[s].length < experiments)
+                    scores[s] = new float[experiments];
+                for (int e = 0; e < experiments; e++)
+                    scores[s][e] = in.readFloat();
+            }
+    }
+
+    // Strategy ids by descending value, ties kept in id order
+    static int[] descending(double[] values) {
+        Integer[] order = new Integer[values.length];
+        for (int s = 0; s < order.length; s++)
+            order[s] = s;
+        Arrays.sort(order, (a, b) -> Double.compare(values[b], values[a]));
+        int[] sorted = new int[order.length];
+        for (int s = 0; s < order.length; s++)
+            sorted[s] = order[s];
+        return sorted;
+    }
+}
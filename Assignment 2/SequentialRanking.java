@@ -0,0 +1,114 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/*
+ * Decides when a sweep has run enough experiments to rank every strategy.
+ *
+ * For every pair of strategies it keeps the running mean and variance
+ * (Welford) of the difference between their scores in the same experiment.
+ * Pairing removes the variation that experiments share, e.g. their round
+ * counts, so far fewer experiments are needed than when comparing the two
+ * means independently.
+ *
+ * A pair is resolved once the confidence interval of its mean difference
+ * either excludes zero (one strategy is ahead) or lies within the
+ * indifference zone of +-indifference points (the two are tied for practical
+ * purposes). Each interval is at level 1 - (1 - confidence) / pairs
+ * (Bonferroni), so all pairs hold together at the requested confidence.
+ * Looking again after every experiment makes the true error rate somewhat
+ * higher than that; minExperiments keeps the early, noisy looks out.
+ */
+final class SequentialRanking {
+    final int strategies;
+    final double confidence;
+    final double indifference;
+    final int minExperiments;
+
+    // Critical value of the t distribution for the current sample size
+    private double critical;
+    private long criticalFor = -1;
+
+    long count;
+    final double[] mean, m2; // One entry per pair a < b, in (a, b) order
+
+    SequentialRanking(int strategies, double confidence, double indifference, int minExperiments) {
+        this.strategies = strategies;
+        this.confidence = confidence;
+        this.indifference = indifference;
+        this.minExperiments = Math.max(2, minExperiments);
+        int pairs = strategies * (strategies - 1) / 2;
+        mean = new double[pairs];
+        m2 = new double[pairs];
+    }
+
+    int pairs() {
+        return mean.length;
+    }
+
+    // Records the total score of each strategy in the next experiment.
+    void add(float[] totalScore) {
+        count++;
+        int p = 0;
+        for (int a = 0; a < strategies; a++)
+            for (int b = a + 1; b < strategies; b++, p++) {
+                double x = (double) totalScore[a] - totalScore[b];
+                double delta = x - mean[p];
+                mean[p] += delta / count;
+                m2[p] += delta * (x - mean[p]);
+            }
+    }
+
+    // Half width of the interval of the mean difference of pair p
+    double halfWidth(int p) {
+        if (count < 2)
+            return Double.POSITIVE_INFINITY;
+        if (criticalFor != count) {
+            double level = 1 - (1 - confidence) / Math.max(1, pairs());
+            critical = RunningStats.studentQuantile(0.5 + level / 2, count - 1);
+            criticalFor = count;
+        }
+        return critical * Math.sqrt(m2[p] / (count - 1) / count);
+    }
+
+    boolean resolved(int p) {
+        double halfWidth = halfWidth(p);
+        return Math.abs(mean[p]) - halfWidth > 0 || Math.abs(mean[p]) + halfWidth <= indifference;
+    }
+
+    int unresolvedPairs() {
+        int unresolved = 0;
+        for (int p = 0; p < pairs(); p++)
+            if (!resolved(p))
+                unresolved++;
+        return unresolved;
+    }
+
+    // Saves the pair statistics, for Checkpoint
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(count);
+        for (int p = 0; p < pairs(); p++) {
+            out.writeDouble(mean[p]);
+            out.writeDouble(m2[p]);
+        }
+    }
+
+    // Restores the statistics saved by writeTo for the same strategies
+    void readFrom(DataInput in) throws IOException {
+        count = in.readLong();
+        for (int p = 0; p < pairs(); p++) {
+            mean[p] = in.readDouble();
+            m2[p] = in.readDouble();
+        }
+    }
+
+    // Whether enough experiments have been run to rank every pair
+    boolean done() {
+        if (count < minExperiments)
+            return false;
+        for (int p = 0; p < pairs(); p++)
+            if (!resolved(p))
+                return false;
+        return true;
+    }
+}
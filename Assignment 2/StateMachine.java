@@ -0,0 +1,112 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+ * A deterministic strategy compiled into a transition table.
+ *
+ * State 0 is the state at the start of a match. In state s the machine plays
+ * action[s], and after a round in which its opponents played opp1 and opp2 it
+ * moves to next[4 * s + (opp1 << 1 | opp2)]. Its own move is not part of the
+ * lookup because it is always action[s].
+ *
+ * MatchEngine.scoresOfMatch(StateMachine, StateMachine, StateMachine, int)
+ * runs a whole match between three machines with array lookups only, so its
+ * inner loop has no virtual calls.
+ */
+final class StateMachine {
+    // Strategies needing more states than this are left uncompiled
+    static final int MAX_STATES = 1024;
+
+    final int[] action;
+    final int[] next;
+
+    StateMachine(int[] action, int[] next) {
+        this.action = action;
+        this.next = next;
+    }
+
+    int states() {
+        return action.length;
+    }
+
+    /*
+     * Compiles the strategy made by factory by exploring its states.
+     *
+     * Each state is reached by replaying, on a fresh player, the opponents'
+     * moves that first led to it, and states are told apart by
+     * Player.stateKey. The players are bound to payoff. Returns null if the strategy is not deterministic, has
+     * no finite state key, or needs more than MAX_STATES states.
+     */
+    static StateMachine compile(Supplier<Player> factory, GroupPayoff payoff) {
+        if (!factory.get().isDeterministic())
+            return null;
+
+        // Opponent moves leading to each state; state 0 is the empty path
+        List<int[]> paths = new ArrayList<>();
+        Map<Long, Integer> stateOfKey = new HashMap<>();
+        List<Integer> actions = new ArrayList<>();
+        List<Integer> transitions = new ArrayList<>();
+        paths.add(new int[0]);
+
+        for (int s = 0; s < paths.size(); s++) {
+            int[] path = paths.get(s);
+            actions.add(replay(factory.get(), payoff, path, -1));
+            for (int opponents = 0; opponents < 4; opponents++) {
+                Player player = factory.get();
+                replay(player, payoff, path, opponents);
+                long key = player.stateKey(path.length + 1);
+                if (key == Player.NO_STATE)
+                    return null;
+                Integer target = stateOfKey.get(key);
+                if (target == null) {
+                    if (paths.size() == MAX_STATES)
+                        return null;
+                    target = paths.size();
+                    stateOfKey.put(key, target);
+                    int[] longer = new int[path.length + 1];
+                    System.arraycopy(path, 0, longer, 0, path.length);
+                    longer[path.length] = opponents;
+                    paths.add(longer);
+                }
+                transitions.add(target);
+            }
+        }
+
+        int[] action = new int[actions.size()];
+        int[] next = new int[transitions.size()];
+        for (int s = 0; s < action.length; s++)
+            action[s] = actions.get(s);
+        for (int t = 0; t < next.length; t++)
+            next[t] = transitions.get(t);
+        return new StateMachine(action, next);
+    }
+
+    // Plays the given opponent moves against player, then the action of the
+    // following round. If lastOpponents is not -1 that round is also
+    // completed with lastOpponents as the opponents' moves. Returns the
+    // action of the last round played.
+    static int replay(Player player, GroupPayoff payoff, int[] path, int lastOpponents) {
+        BitHistory mine = new BitHistory(path.length + 1);
+        BitHistory opp1 = new BitHistory(path.length + 1);
+        BitHistory opp2 = new BitHistory(path.length + 1);
+        player.bind(mine, opp1, opp2);
+        player.bind(payoff);
+        for (int n = 0; n < path.length; n++)
+            playRound(player, n, path[n], mine, opp1, opp2);
+        if (lastOpponents < 0)
+            return player.nextAction(path.length);
+        return playRound(player, path.length, lastOpponents, mine, opp1, opp2);
+    }
+
+    static int playRound(Player player, int n, int opponents, BitHistory mine, BitHistory opp1, BitHistory opp2) {
+        int move = player.nextAction(n);
+        player.onRoundResult(move, opponents >> 1, opponents & 1);
+        mine.append(move);
+        opp1.append(opponents >> 1);
+        opp2.append(opponents & 1);
+        return move;
+    }
+}
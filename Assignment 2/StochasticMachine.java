@@ -0,0 +1,96 @@
+/*
+ * A strategy with finitely many states whose moves may be random.
+ *
+ * A match starts in state s with probability initial[s]. In state s the
+ * strategy defects with probability defect[s], and after a round in which it
+ * played own and its opponents played opp1 and opp2 it moves to
+ * next[8 * s + (own << 2 | opp1 << 1 | opp2)]. Unlike in StateMachine the
+ * strategy's own move is part of the lookup, because it is no longer implied
+ * by the state.
+ *
+ * Three such machines form a Markov chain over their joint states, which
+ * MarkovEngine follows to get exact expected scores. Deterministic strategies
+ * are converted from their StateMachine; random ones describe themselves
+ * through Player.stochasticMachine.
+ */
+final class StochasticMachine {
+    final double[] initial;
+    final double[] defect;
+    final int[] next;
+
+    // States with a non-zero initial probability
+    final int[] initialStates;
+
+    StochasticMachine(double[] initial, double[] defect, int[] next) {
+        this.initial = initial;
+        this.defect = defect;
+        this.next = next;
+        int count = 0;
+        for (double p : initial)
+            if (p > 0)
+                count++;
+        initialStates = new int[count];
+        for (int s = 0, i = 0; s < initial.length; s++)
+            if (initial[s] > 0)
+                initialStates[i++] = s;
+    }
+
+    int states() {
+        return defect.length;
+    }
+
+    // The machine of a deterministic strategy, which always starts in state 0.
+    static StochasticMachine of(StateMachine machine) {
+        int states = machine.states();
+        double[] initial = new double[states];
+        double[] defect = new double[states];
+        int[] next = new int[8 * states];
+        initial[0] = 1;
+        for (int s = 0; s < states; s++) {
+            defect[s] = machine.action[s];
+            for (int own = 0; own < 2; own++)
+                for (int opponents = 0; opponents < 4; opponents++)
+                    next[8 * s + (own << 2 | opponents)] = machine.next[4 * s + opponents];
+        }
+        return new StochasticMachine(initial, defect, next);
+    }
+
+    /*
+     * The machine of a strategy that remembers only the opponents' moves of
+     * the previous round. It defects with probability first in the first
+     * round, and afterwards with probability afterOpponents[opp1 << 1 | opp2].
+     */
+    static StochasticMachine reactive(double first, double[] afterOpponents) {
+        // State 0 is the first round, state 1 + (opp1 << 1 | opp2) any later one
+        double[] initial = { 1, 0, 0, 0, 0 };
+        double[] defect = new double[5];
+        int[] next = new int[8 * 5];
+        defect[0] = first;
+        for (int s = 0; s < 5; s++) {
+            if (s > 0)
+                defect[s] = afterOpponents[s - 1];
+            for (int own = 0; own < 2; own++)
+                for (int opponents = 0; opponents < 4; opponents++)
+                    next[8 * s + (own << 2 | opponents)] = 1 + opponents;
+        }
+        return new StochasticMachine(initial, defect, next);
+    }
+
+    /*
+     * The machine of a strategy that picks one fixed move per match, defecting
+     * throughout with probability p.
+     */
+    static StochasticMachine mixture(double p) {
+        double[] initial = { 1 - p, p };
+        double[] defect = { 0, 1 };
+        int[] next = new int[16];
+        for (int move = 0; move < 8; move++)
+            next[8 + move] = 1;
+        return new StochasticMachine(initial, defect, next);
+    }
+
+    // The machine of a strategy that defects with probability p every round.
+    static StochasticMachine constant(double p) {
+        return new StochasticMachine(new double[] { 1 }, new double[] { p }, new int[8]);
+    }
+}
@@ -0,0 +1,680 @@
+/*
+ * The strategies of the tournament programs.
+ *
+ * They used to be copied as inner classes into every program; each is now
+ * defined once here, and the programs differ only in which of them they
+ * register. standard() is the line-up of ThreePrisonersDilemma and
+ * ThreePrisonersDilemmaExperiment, defect() that of
+ * ThreePrisonersDilemmaExperimentDefect. A strategy's name() is its class
+ * name, as before.
+ *
+ * Every strategy is a GroupPlayer, so GroupTournament plays the same classes
+ * in groups of any size. "An opponent" or "either opponent" then means one
+ * or any of the other players. With two opponents every strategy makes the
+ * same moves and random draws as the original three-player version.
+ */
+final class Strategies {
+    private Strategies() {
+    }
+
+    // The 18 strategies of the standard tournament, in the order of its
+    // default roster, followed by any StrategyProvider plugins
+    static StrategyRegistry standard() {
+        return new StrategyRegistry()
+                .register("NicePlayer", NicePlayer::new)
+                .register("NastyPlayer", NastyPlayer::new)
+                .register("RandomPlayer", RandomPlayer::new)
+                .register("TolerantPlayer", TolerantPlayer::new)
+                .register("FreakyPlayer", FreakyPlayer::new)
+                .register("T4TPlayer", T4TPlayer::new)
+                .register("SuspiciousT4TPlayer", SuspiciousT4TPlayer::new)
+                .register("StandardT4TPlayer", StandardT4TPlayer::new)
+                .register("SuspiciousStandardT4TPlayer", SuspiciousStandardT4TPlayer::new)
+                .register("GenerousT4TPlayer", GenerousT4TPlayer::new)
+                .register("JossPlayer", JossPlayer::new)
+                .register("StandardT42TPlayer", StandardT42TPlayer::new)
+                .register("StandardT43TPlayer", StandardT43TPlayer::new)
+                .register("StandardT44TPlayer", StandardT44TPlayer::new)
+                .register("TesterPlayer", TesterPlayer::new)
+                .register("PavlovPlayer", PavlovPlayer::new)
+                .register("TriggerPlayer", TriggerPlayer::new)
+                .register("EndGameDefactorPlayer", EndGameDefactorPlayer::new)
+                .loadPlugins();
+    }
+
+    // The four Standard T4T variants against 14 copies of NastyPlayer,
+    // followed by any StrategyProvider plugins
+    static StrategyRegistry defect() {
+        StrategyRegistry registry = new StrategyRegistry();
+        for (int i = 1; i <= 10; i++)
+            registerNasty(registry, i);
+        registry.register("StandardT4TPlayer", StandardT4TPlayer::new)
+                .register("StandardT42TPlayer", StandardT42TPlayer::new)
+                .register("StandardT43TPlayer", StandardT43TPlayer::new)
+                .register("StandardT44TPlayer", StandardT44TPlayer::new);
+        for (int i = 11; i <= 14; i++)
+            registerNasty(registry, i);
+        return registry.loadPlugins();
+    }
+
+    private static void registerNasty(StrategyRegistry registry, int number) {
+        String name = "NastyPlayer" + number;
+        registry.register(name, () -> new NamedNastyPlayer(name));
+    }
+
+    /* Here are four simple strategies: */
+
+    static class NicePlayer extends GroupPlayer {
+        // NicePlayer always cooperates
+        int nextAction(int n) {
+            return 0;
+        }
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+        long stateKey(int n) {
+            return 0;
+        }
+    }
+
+    static class NastyPlayer extends GroupPlayer {
+        // NastyPlayer always defects
+        int nextAction(int n) {
+            return 1;
+        }
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+        long stateKey(int n) {
+            return 0;
+        }
+
+        String equivalenceKey() {
+            return "NastyPlayer";
+        }
+    }
+
+    static class RandomPlayer extends GroupPlayer {
+        // RandomPlayer randomly picks his action each time
+        int nextAction(int n) {
+            if (Rng.random() < 0.5)
+                return 0; // cooperates half the time
+            else
+                return 1; // defects half the time
+        }
+
+        StochasticMachine stochasticMachine() {
+            return StochasticMachine.constant(0.5);
+        }
+    }
+
+    static class TolerantPlayer extends GroupPlayer {
+        // TolerantPlayer looks at his opponents' histories, and only defects
+        // if at least half of the other players' actions have been defects
+
+        // The actions seen so far are counted as they happen
+        int opponentCoop = 0;
+        int opponentDefect = 0;
+
+        int nextAction(int n) {
+            if (opponentDefect > opponentCoop)
+                return 1;
+            else
+                return 0;
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            for (int move : others) {
+                if (move == 0)
+                    opponentCoop = opponentCoop + 1;
+                else
+                    opponentDefect = opponentDefect + 1;
+            }
+        }
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+        StochasticMachine stochasticMachine() {
+            // The state is half of opponentDefect - opponentCoop, which never
+            // leaves +-MAX_ROUNDS in a match, so a bounded counter plays the same
+            int bound = TournamentExecutor.MAX_ROUNDS, states = 2 * bound + 1;
+            double[] initial = new double[states], defect = new double[states];
+            int[] next = new int[8 * states];
+            initial[bound] = 1;
+            for (int s = 0; s < states; s++) {
+                defect[s] = s > bound ? 1 : 0;
+                for (int moves = 0; moves < 8; moves++) {
+                    int change = ((moves >> 1) & 1) + (moves & 1) - 1; // Opponents' defections minus one
+                    next[8 * s + moves] = Math.max(0, Math.min(states - 1, s + change));
+                }
+            }
+            return new StochasticMachine(initial, defect, next);
+        }
+    }
+
+    static class FreakyPlayer extends GroupPlayer {
+        // FreakyPlayer determines, at the start of the match,
+        // either to always be nice or always be nasty.
+        // Note that this class has a non-trivial constructor.
+        int action;
+
+        FreakyPlayer() {
+            if (Rng.random() < 0.5)
+                action = 0; // cooperates half the time
+            else
+                action = 1; // defects half the time
+        }
+
+        int nextAction(int n) {
+            return action;
+        }
+
+        StochasticMachine stochasticMachine() {
+            return StochasticMachine.mixture(0.5);
+        }
+    }
+
+    static class T4TPlayer extends GroupPlayer {
+        // Picks a random opponent at each play,
+        // and uses the 'tit-for-tat' strategy against them
+        int[] lastOpps; // opponents' actions in the previous round
+
+        int nextAction(int n) {
+            if (n == 0)
+                return 0; // cooperate by default
+            // Every opponent is equally likely; with two, a draw below 0.5
+            // picks the first
+            return lastOpps[(int) (Rng.random() * lastOpps.length)];
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            if (lastOpps == null)
+                lastOpps = new int[others.length];
+            System.arraycopy(others, 0, lastOpps, 0, others.length);
+        }
+
+        StochasticMachine stochasticMachine() {
+            // Copies either opponent with equal probability
+            return StochasticMachine.reactive(0, new double[] { 0, 0.5, 0.5, 1 });
+        }
+    }
+
+    /* Implementation of different strategies by Lian Hong Shen Jordan */
+
+    static class SuspiciousT4TPlayer extends GroupPlayer {
+        // Impelments the Suspicious Tit-for-tat strategy
+        // Picks a random opponent at each play,
+        // and uses the 'tit-for-tat' strategy against them
+        int[] lastOpps; // opponents' actions in the previous round
+
+        int nextAction(int n) {
+            if (n == 0)
+                return 1; // Defect on first round
+            // Every opponent is equally likely; with two, a draw below 0.5
+            // picks the first
+            return lastOpps[(int) (Rng.random() * lastOpps.length)];
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            if (lastOpps == null)
+                lastOpps = new int[others.length];
+            System.arraycopy(others, 0, lastOpps, 0, others.length);
+        }
+
+        StochasticMachine stochasticMachine() {
+            return StochasticMachine.reactive(1, new double[] { 0, 0.5, 0.5, 1 });
+        }
+    }
+
+    static class StandardT4TPlayer extends GroupPlayer {
+        // Implements the Standard Tit-for-tat strategy
+        // Does not pick a random opponent at each play, considers both opponents
+        // defects if either of them defected in the previous round
+        int lastDefectors; // opponents who defected in the previous round
+
+        int nextAction(int n) {
+            if (n == 0)
+                return 0; // Cooperate on first round
+
+            // Defect if any opponent defected in the previous round
+            if (lastDefectors > 0) {
+                return 1;
+            }
+
+            return 0; // Otherwise cooperate
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            lastDefectors = defectors;
+        }
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+        long stateKey(int n) {
+            return lastDefectors > 0 ? 1 : 0;
+        }
+    }
+
+    static class SuspiciousStandardT4TPlayer extends GroupPlayer {
+        // Implements the Suspicious Standard Tit-for-tat strategy
+        // Does not pick a random opponent at each play, considers both opponents
+        // defects if either of them defected in the previous round
+        int lastDefectors; // opponents who defected in the previous round
+
+        int nextAction(int n) {
+            if (n == 0)
+                return 1; // Defect on first round
+
+            // Defect if any opponent defected in the previous round
+            if (lastDefectors > 0) {
+                return 1;
+            }
+
+            return 0; // Otherwise cooperate
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            lastDefectors = defectors;
+        }
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+        long stateKey(int n) {
+            return lastDefectors > 0 ? 1 : 0;
+        }
+    }
+
+    static class GenerousT4TPlayer extends GroupPlayer {
+        // Implements the Generous Tit-for-tat strategy
+        // Similar to Standard T4T but with min{1− (T-R)/(R-S) , (R-P)/(T-P)} probability of forgiving defections
+        // R (Reward) = 6 (payoff[0][0][0]), P (Punishment) = 2 (payoff[1][1][1]), T (Temptation) = 8 (payoff[1][0][0]), S (Sucker) = 0 (payoff[0][1][1])
+        // Math.min(1 - (payoff[1][0][0] - payoff[0][0][0]) / (payoff[0][0][0] - payoff[0][1][1]),(payoff[0][0][0] - payoff[1][1][1]) / (payoff[1][0][0] - payoff[1][1][1])) 
+        // Math.min(1 - (8-6)/(6-0), (6-2)/(8-2)) = Math.min(1 - 2/6, 4/6) = Math.min(2/3, 2/3) = 2/3
+        double gCooperate = 2 / 3;
+
+        int lastDefectors; // opponents who defected in the previous round
+
+        int nextAction(int n) {
+            if (n == 0)
+                return 0; // Cooperate on first round
+
+            // If any opponent defected in the previous round
+            if (lastDefectors > 0) {
+                // 2/3 chance to forgive and cooperate anyway
+                if (Rng.random() < gCooperate) {
+                    return 0;
+                } else {
+                    return 1; // Defect to retaliate
+                }
+            }
+
+            return 0; // Both opponents cooperated, so cooperate
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            lastDefectors = defectors;
+        }
+
+        StochasticMachine stochasticMachine() {
+            double retaliate = 1 - gCooperate;
+            return StochasticMachine.reactive(0, new double[] { 0, retaliate, retaliate, retaliate });
+        }
+    }
+
+    static class JossPlayer extends GroupPlayer {
+        // Implements the Joss strategy
+        // Similar to Standard T4T but once in a while, defects randomly
+        int lastDefectors; // opponents who defected in the previous round
+
+        int nextAction(int n) {
+            if (n == 0)
+                return 0; // Cooperate on first round
+
+            // If any opponent defected, defect
+            if (lastDefectors > 0) {
+                return 1;
+            }
+
+            // 10% chance to defect even when opponents cooperated
+            if (Rng.random() < 0.1) {
+                return 1;
+            }
+
+            return 0; // Otherwise cooperate
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            lastDefectors = defectors;
+        }
+
+        StochasticMachine stochasticMachine() {
+            return StochasticMachine.reactive(0, new double[] { 0.1, 1, 1, 1 });
+        }
+    }
+
+    static class StandardT42TPlayer extends GroupPlayer {
+        // Implements the Tit-for-2-Tat strategy
+        // Similar to Standard T4T,
+        // but only defects if oppponent defected in the last two round
+
+        // Number of consecutive rounds, up to the last one, each opponent defected
+        int[] defections;
+
+        int nextAction(int n) {
+            if (n < 2)
+                return 0; // Cooperate on first two rounds
+
+            // Check if either opponent defected in each of the last two rounds
+            for (int streak : defections) {
+                if (streak >= 2)
+                    return 1;
+            }
+
+            return 0; // Otherwise cooperate
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            if (defections == null)
+                defections = new int[others.length];
+            for (int o = 0; o < others.length; o++)
+                defections[o] = others[o] == 1 ? defections[o] + 1 : 0;
+        }
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+        long stateKey(int n) {
+            // Streaks longer than two rounds behave the same as two
+            long key = 0;
+            if (defections != null)
+                for (int streak : defections)
+                    key = key * 3 + Math.min(streak, 2);
+            return key;
+        }
+    }
+
+    static class StandardT43TPlayer extends GroupPlayer {
+        // Implements the Tit-for-3-Tat strategy
+        // Similar to Standard T42T,
+        // but only defects if oppponent defected in the last three round
+
+        // Number of consecutive rounds, up to the last one, each opponent defected
+        int[] defections;
+
+        int nextAction(int n) {
+            if (n < 3)
+                return 0; // Cooperate on first three rounds
+
+            // Check if either opponent defected in each of the last three rounds
+            for (int streak : defections) {
+                if (streak >= 3)
+                    return 1;
+            }
+
+            return 0; // Otherwise cooperate
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            if (defections == null)
+                defections = new int[others.length];
+            for (int o = 0; o < others.length; o++)
+                defections[o] = others[o] == 1 ? defections[o] + 1 : 0;
+        }
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+        long stateKey(int n) {
+            // Streaks longer than three rounds behave the same as three
+            long key = 0;
+            if (defections != null)
+                for (int streak : defections)
+                    key = key * 4 + Math.min(streak, 3);
+            return key;
+        }
+    }
+
+    static class StandardT44TPlayer extends GroupPlayer {
+        // Implements the Tit-for-4-Tat strategy
+        // Similar to Standard T42T,
+        // but only defects if oppponent defected in the last four round
+
+        // Number of consecutive rounds, up to the last one, each opponent defected
+        int[] defections;
+
+        int nextAction(int n) {
+            if (n < 4)
+                return 0; // Cooperate on first four rounds
+
+            // Check if either opponent defected in each of the last four rounds
+            for (int streak : defections) {
+                if (streak >= 4)
+                    return 1;
+            }
+
+            return 0; // Otherwise cooperate
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            if (defections == null)
+                defections = new int[others.length];
+            for (int o = 0; o < others.length; o++)
+                defections[o] = others[o] == 1 ? defections[o] + 1 : 0;
+        }
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+        long stateKey(int n) {
+            // Streaks longer than four rounds behave the same as four
+            long key = 0;
+            if (defections != null)
+                for (int streak : defections)
+                    key = key * 5 + Math.min(streak, 4);
+            return key;
+        }
+    }
+
+    static class TesterPlayer extends GroupPlayer {
+        // Implements the Tester strategy
+        // Tests opponents by defecting on the first round if opponent defects, switch to Standard T4T
+        // if opponent cooperates, exploit by mixing cooperation and defection exploit every 5 rounds
+        boolean retaliationDetected = false;
+
+        int lastDefectors; // opponents who defected in the previous round
+
+        int nextAction(int n) {
+            if (n == 0)
+                return 1; // Defect on first round
+
+            // Check if any opponent retaliated to our initial defection
+            if (n == 1 && (lastDefectors > 0)) {
+                retaliationDetected = true;
+            }
+
+            if (retaliationDetected) {
+                // Use standard Tit-for-Tat
+                if (lastDefectors > 0) {
+                    return 1;
+                } else {
+                    return 0;
+                }
+            } else {
+                // No retaliation detected, periodically defect
+                if (n % 5 == 0) { // Defect every 5 rounds
+                    return 1;
+                } else {
+                    return 0;
+                }
+            }
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            lastDefectors = defectors;
+        }
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+        long stateKey(int n) {
+            int defected = lastDefectors > 0 ? 1 : 0;
+            if (n == 1)
+                return 8 | defected; // retaliation check still to come
+            if (retaliationDetected)
+                return 4 | defected;
+            return 16 + n % 5; // exploiting: only the phase of the 5-round cycle matters
+        }
+    }
+
+    static class PavlovPlayer extends GroupPlayer {
+        // Implements the Pavlov Strategy
+        int lastMove, lastDefectors; // my action and the opponents' defections in the previous round
+
+        int nextAction(int n) {
+            if (n == 0)
+                return 0; // Cooperate on first round
+
+            // Get previous payoff
+            GroupPayoff payoff = payoff();
+            int lastPayoff = payoff.get(lastMove, lastDefectors);
+
+            // A payoff is good if it is at least what a defector gets when
+            // one other player cooperates
+            int good = payoff.get(1, payoff.players - 2);
+
+            // If payoff was good (≥ 5 with three players), stick with previous move
+            if (lastPayoff >= good) {
+                return lastMove;
+            } else {
+                // Otherwise change move
+                return 1 - lastMove;
+            }
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            lastMove = myMove;
+            lastDefectors = defectors;
+        }
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+        long stateKey(int n) {
+            return lastDefectors << 1 | lastMove;
+        }
+    }
+
+    static class TriggerPlayer extends GroupPlayer {
+        // Implements the Trigger/Grim/Friedman strategy
+        // This strategy cooperates until any opponent defects, then defects forever
+        boolean betrayed = false; // whether any opponent has ever defected
+
+        int nextAction(int n) {
+            if (n == 0)
+                return 0; // Cooperate on first round
+
+            if (betrayed) {
+                return 1; // Defect forever if betrayed
+            }
+
+            return 0; // Otherwise cooperate
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            if (defectors > 0)
+                betrayed = true;
+        }
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+        long stateKey(int n) {
+            return betrayed ? 1 : 0;
+        }
+    }
+
+    static class EndGameDefactorPlayer extends GroupPlayer {
+        // Implements the End Game Defector strategy
+        // This strategy cooperates with Standard TFT
+        // until the last 10 rounds, then defects
+        int lastDefectors; // opponents who defected in the previous round
+
+        int nextAction(int n) {
+            if (n == 0)
+                return 0; // Cooperate on first round
+
+            // Defect in the last ~10 rounds (we know there are ~90-110 rounds)
+            if (n >= 100) {
+                return 1;
+            }
+
+            // Use Tit-for-Tat strategy before the end
+            if (lastDefectors > 0) {
+                return 1;
+            }
+
+            return 0; // Otherwise cooperate
+        }
+
+        void onGroupRoundResult(int myMove, int[] others, int defectors) {
+            lastDefectors = defectors;
+        }
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+        long stateKey(int n) {
+            // Only the round number up to 100 and the last round matter
+            return Math.min(n, 100) << 1 | (lastDefectors > 0 ? 1 : 0);
+        }
+    }
+
+    static class NamedNastyPlayer extends GroupPlayer {
+        private final String customName;
+
+        // Constructor that takes a custom name
+        public NamedNastyPlayer(String name) {
+            this.customName = name;
+        }
+
+        // Override the name() method to return the custom name
+        @Override
+        String name() {
+            return customName;
+        }
+
+        // NastyPlayer always defects
+        int nextAction(int n) {
+            return 1;
+        }
+
+        boolean isDeterministic() {
+            return true;
+        }
+
+        long stateKey(int n) {
+            return 0;
+        }
+
+        String equivalenceKey() {
+            return "NastyPlayer";
+        }
+    }
+}
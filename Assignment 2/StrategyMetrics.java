@@ -0,0 +1,248 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/*
+ * Where tournament time goes, per strategy (-Dtournament.metrics=true).
+ *
+ * TournamentExecutor wraps every player it creates in an InstrumentedPlayer,
+ * which counts the moves the strategy is asked for and adds up the time spent
+ * in nextAction (and so selectAction) and onRoundResult. It keeps these in
+ * plain fields and adds them to the shared counters once, after the match.
+ * Reading the allocated bytes of a thread costs far more than a strategy's
+ * move, so allocation is measured per match instead: the bytes allocated
+ * while a match is simulated count toward each of its three strategies.
+ *
+ * Every match is counted, including those whose scores come from the match
+ * cache or are copied from a match between the same behaviours (see
+ * TournamentExecutor). Such matches run no strategy code and are also
+ * counted as cached. The counters are
+ * LongAdders, so threads playing matches side by side update separate cells
+ * instead of contending for one.
+ *
+ * Strategies compiled into StateMachines play by table lookups, which no
+ * strategy code runs in, so TournamentExecutor compiles no strategies while
+ * metrics are on.
+ *
+ * ENABLED is a constant, so with metrics off the JIT drops every check of it
+ * and the engine runs as before. The counters are shown through JMX (see
+ * StrategyMetricsMXBean) and written to strategy_metrics.csv after a sweep.
+ */
+final class StrategyMetrics implements StrategyMetricsMXBean {
+    static final boolean ENABLED = Boolean.getBoolean("tournament.metrics");
+
+    private static StrategyMetrics instance;
+
+    // Reads the bytes allocated by the current thread, where the JVM supports it
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+
+    final LongAdder matches = new LongAdder(), cachedMatches = new LongAdder(), matchNanos = new LongAdder(),
+            matchAllocatedBytes = new LongAdder();
+
+    private final ConcurrentHashMap<String, Counters> strategies = new ConcurrentHashMap<>();
+
+    static final class Counters {
+        final String name;
+        final LongAdder matches = new LongAdder(), cachedMatches = new LongAdder(), calls = new LongAdder(),
+                nanos = new LongAdder(), allocatedBytes = new LongAdder();
+
+        Counters(String name) {
+            this.name = name;
+        }
+    }
+
+    private StrategyMetrics() {
+    }
+
+    // The metrics of this JVM, registered with JMX on first use
+    static synchronized StrategyMetrics get() {
+        if (instance == null) {
+            instance = new StrategyMetrics();
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(instance,
+                        new ObjectName("ThreePrisonersDilemma:type=StrategyMetrics"));
+            } catch (JMException e) {
+                System.err.println("Strategy metrics not registered with JMX: " + e.getMessage());
+            }
+        }
+        return instance;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (ENABLED && threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+            if (bean.isThreadAllocatedMemorySupported()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+                return bean;
+            }
+        }
+        return null;
+    }
+
+    static long allocatedBytes() {
+        return ALLOCATION != null ? ALLOCATION.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    Counters counters(String name) {
+        return strategies.computeIfAbsent(name, Counters::new);
+    }
+
+    // Counts one simulated match between the three strategies, which took
+    // nanos and allocated bytes
+    void match(Counters a, Counters b, Counters c, long nanos, long bytes) {
+        matches.increment();
+        matchNanos.add(nanos);
+        matchAllocatedBytes.add(bytes);
+        for (Counters counters : new Counters[] { a, b, c }) {
+            counters.matches.increment();
+            counters.allocatedBytes.add(bytes);
+        }
+    }
+
+    // Counts one match between the three strategies whose scores came from
+    // the match cache or from an equivalent match
+    void cachedMatch(Counters a, Counters b, Counters c) {
+        matches.increment();
+        cachedMatches.increment();
+        for (Counters counters : new Counters[] { a, b, c }) {
+            counters.matches.increment();
+            counters.cachedMatches.increment();
+        }
+    }
+
+    public long getMatches() {
+        return matches.sum();
+    }
+
+    public long getCachedMatches() {
+        return cachedMatches.sum();
+    }
+
+    public long getMatchNanos() {
+        return matchNanos.sum();
+    }
+
+    public long getMatchAllocatedBytes() {
+        return matchAllocatedBytes.sum();
+    }
+
+    public List<Strategy> getStrategies() {
+        List<Strategy> result = new ArrayList<>();
+        for (Counters counters : strategies.values())
+            result.add(new Strategy(counters.name, counters.matches.sum(), counters.cachedMatches.sum(),
+                    counters.calls.sum(), counters.nanos.sum(), counters.allocatedBytes.sum()));
+        result.sort((x, y) -> Long.compare(y.getNanos(), x.getNanos()));
+        return result;
+    }
+
+    public void reset() {
+        matches.reset();
+        cachedMatches.reset();
+        matchNanos.reset();
+        matchAllocatedBytes.reset();
+        for (Counters counters : strategies.values()) {
+            counters.matches.reset();
+            counters.cachedMatches.reset();
+            counters.calls.reset();
+            counters.nanos.reset();
+            counters.allocatedBytes.reset();
+        }
+    }
+
+    // Writes the counters of every strategy, slowest first, and prints them
+    void writeTable(String outputFilename) throws IOException {
+        List<Strategy> rows = getStrategies();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(outputFilename))) {
+            writer.println("Strategy,Matches,CachedMatches,Calls,Nanoseconds,NanosecondsPerCall,MatchAllocatedBytes");
+            for (Strategy row : rows)
+                writer.println(row.getName() + "," + row.getMatches() + "," + row.getCachedMatches() + ","
+                        + row.getCalls() + "," + row.getNanos() + "," + String.format("%.1f", perCall(row)) + ","
+                        + row.getAllocatedBytes());
+        }
+        System.out.println();
+        System.out.println("Strategy metrics (" + getMatches() + " matches, " + getCachedMatches() + " reused, "
+                + String.format("%.1f", getMatchNanos() / 1e6) + " ms and " + getMatchAllocatedBytes()
+                + " bytes allocated in simulated matches)");
+        for (Strategy row : rows)
+            System.out.println(row.getName() + ": " + row.getCalls() + " calls, "
+                    + String.format("%.1f", row.getNanos() / 1e6) + " ms, " + String.format("%.1f", perCall(row))
+                    + " ns per call, " + row.getAllocatedBytes() + " bytes allocated in its matches.");
+        System.out.println("Strategy metrics saved to: " + outputFilename);
+    }
+
+    private static double perCall(Strategy row) {
+        return row.getCalls() == 0 ? 0 : (double) row.getNanos() / row.getCalls();
+    }
+
+    // A player that times its strategy's decisions, and adds them to the
+    // strategy's counters when flushed after the match
+    static final class InstrumentedPlayer extends Player {
+        final Player player;
+        final Counters counters;
+        long calls, nanos;
+
+        InstrumentedPlayer(Player player, Counters counters) {
+            this.player = player;
+            this.counters = counters;
+        }
+
+        int nextAction(int n) {
+            long start = System.nanoTime();
+            int action = player.nextAction(n);
+            nanos += System.nanoTime() - start;
+            calls++;
+            return action;
+        }
+
+        void onRoundResult(int myMove, int opp1Move, int opp2Move) {
+            long start = System.nanoTime();
+            player.onRoundResult(myMove, opp1Move, opp2Move);
+            nanos += System.nanoTime() - start;
+        }
+
+        // Adds what was timed so far to the strategy's counters
+        void flush() {
+            counters.calls.add(calls);
+            counters.nanos.add(nanos);
+            calls = 0;
+            nanos = 0;
+        }
+
+        void bind(BitHistory myHistory, BitHistory oppHistory1, BitHistory oppHistory2) {
+            player.bind(myHistory, oppHistory1, oppHistory2);
+        }
+
+        void bind(GroupPayoff payoff) {
+            player.bind(payoff);
+        }
+
+        boolean isDeterministic() {
+            return player.isDeterministic();
+        }
+
+        String equivalenceKey() {
+            return player.equivalenceKey();
+        }
+
+        long stateKey(int n) {
+            return player.stateKey(n);
+        }
+
+        StochasticMachine stochasticMachine() {
+            return player.stochasticMachine();
+        }
+
+        String name() {
+            return player.name();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.List;
+
+/*
+ * The JMX view of StrategyMetrics, registered as
+ * ThreePrisonersDilemma:type=StrategyMetrics when -Dtournament.metrics=true.
+ * jconsole or any other JMX client shows the counters while a sweep runs.
+ */
+public interface StrategyMetricsMXBean {
+    // Matches played, those of them whose scores came from the match cache,
+    // and the nanoseconds and bytes allocated in the others' scoresOfMatch
+    long getMatches();
+
+    long getCachedMatches();
+
+    long getMatchNanos();
+
+    long getMatchAllocatedBytes();
+
+    // The counters of every strategy seen so far
+    List<Strategy> getStrategies();
+
+    void reset();
+
+    // Counters of one strategy, as they stood when read
+    final class Strategy {
+        private final String name;
+        private final long matches, cachedMatches, calls, nanos, allocatedBytes;
+
+        public Strategy(String name, long matches, long cachedMatches, long calls, long nanos, long allocatedBytes) {
+            this.name = name;
+            this.matches = matches;
+            this.cachedMatches = cachedMatches;
+            this.calls = calls;
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // Matches the strategy played in, cached ones included
+        public long getMatches() {
+            return matches;
+        }
+
+        // Matches whose scores came from the match cache, which ran no
+        // strategy code
+        public long getCachedMatches() {
+            return cachedMatches;
+        }
+
+        // Moves it was asked for
+        public long getCalls() {
+            return calls;
+        }
+
+        // Nanoseconds spent choosing moves and taking in round results
+        public long getNanos() {
+            return nanos;
+        }
+
+        // Bytes allocated by the simulated matches it played in, measured per
+        // match, so a match counts toward each of its three strategies. 0
+        // where the JVM cannot tell.
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+}
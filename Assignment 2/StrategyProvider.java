@@ -0,0 +1,12 @@
+/*
+ * A plugin that adds strategies to every tournament program.
+ *
+ * Implementations are found with java.util.ServiceLoader: list the class
+ * name in META-INF/services/StrategyProvider on the classpath, and give the
+ * class a public no-argument constructor. The strategies it registers can
+ * then be put in a roster with -Dtournament.roster, without editing the
+ * tournament programs.
+ */
+public interface StrategyProvider {
+    void registerStrategies(StrategyRegistry registry);
+}
@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/*
+ * The strategies a tournament program can play, by name.
+ *
+ * Each strategy is registered under the name() of the players it creates,
+ * with a factory that creates a fresh copy of it. The strategies a
+ * program registers itself form its default roster, in registration order;
+ * strategies added by StrategyProvider plugins can be played but are only in
+ * a roster when named.
+ *
+ * A Roster fixes the players of one tournament. Its factories sit in an
+ * array indexed by player number, so creating a player is an array load and
+ * a constructor call, and its size is known before any per-strategy array is
+ * allocated. A strategy appears in a roster at most once, so that every
+ * column of the score tables names one player.
+ */
+final class StrategyRegistry {
+    private final Map<String, Supplier<? extends Player>> factories = new LinkedHashMap<>();
+    private final List<String> defaultRoster = new ArrayList<>();
+    private boolean loadingPlugins;
+
+    // Adds a strategy under the name of the players it creates
+    StrategyRegistry register(String name, Supplier<? extends Player> factory) {
+        if (factories.containsKey(name))
+            throw new IllegalArgumentException("Strategy registered twice: " + name);
+        factories.put(name, factory);
+        if (!loadingPlugins)
+            defaultRoster.add(name);
+        return this;
+    }
+
+    // Lets every StrategyProvider on the classpath register its strategies
+    StrategyRegistry loadPlugins() {
+        loadingPlugins = true;
+        try {
+            for (StrategyProvider provider : ServiceLoader.load(StrategyProvider.class))
+                provider.registerStrategies(this);
+        } finally {
+            loadingPlugins = false;
+        }
+        return this;
+    }
+
+    /*
+     * The roster described by spec: strategy names separated by commas, where
+     * "default" stands for the default roster. A null or empty spec is the
+     * default roster.
+     */
+    Roster roster(String spec) {
+        List<String> names = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        if (spec == null || spec.trim().isEmpty())
+            spec = "default";
+        for (String entry : spec.split(",")) {
+            entry = entry.trim();
+            List<String> added;
+            if (entry.equals("default"))
+                added = defaultRoster;
+            else if (factories.containsKey(entry))
+                added = List.of(entry);
+            else
+                throw new IllegalArgumentException("Unknown strategy " + entry + " in tournament.roster; known: "
+                        + String.join(", ", factories.keySet()));
+            for (String name : added) {
+                if (!seen.add(name))
+                    throw new IllegalArgumentException("Strategy " + name + " appears twice in tournament.roster");
+                names.add(name);
+            }
+        }
+        if (names.isEmpty())
+            throw new IllegalArgumentException("tournament.roster has no strategies");
+        Supplier<? extends Player>[] rosterFactories = newFactoryArray(names.size());
+        for (int i = 0; i < rosterFactories.length; i++)
+            rosterFactories[i] = factories.get(names.get(i));
+        return new Roster(names.toArray(new String[0]), rosterFactories);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<? extends Player>[] newFactoryArray(int length) {
+        return (Supplier<? extends Player>[]) new Supplier<?>[length];
+    }
+
+    static final class Roster implements TournamentExecutor.PlayerFactory {
+        private final String[] names;
+        private final Supplier<? extends Player>[] factories;
+
+        Roster(String[] names, Supplier<? extends Player>[] factories) {
+            this.names = names;
+            this.factories = factories;
+        }
+
+        int size() {
+            return factories.length;
+        }
+
+        String[] names() {
+            return names.clone();
+        }
+
+        public String name(int which) {
+            return names[which];
+        }
+
+        public Player makePlayer(int which) {
+            if (which < 0 || which >= factories.length)
+                throw new RuntimeException("Bad argument passed to makePlayer");
+            return factories[which].get();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+/*
+ * Registers the strategies submitted for the assignment, which the tournament
+ * programs do not play by default, e.g.
+ *   java -Dtournament.roster=default,Lian_HongShenJordan_Player ThreePrisonersDilemma
+ * Listed in META-INF/services/StrategyProvider.
+ */
+public class SubmittedStrategies implements StrategyProvider {
+    public void registerStrategies(StrategyRegistry registry) {
+        registry.register("Lian_HongShenJordan_Player", Lian_HongShenJordan_Player::new);
+    }
+}
@@ -0,0 +1,136 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/*
+ * Which strategies of ThreePrisonersDilemma survive in a population?
+ *
+ * The expected score of every strategy against every pair of opponents is
+ * computed once into a PayoffTensor (cached in evolution_results), and the
+ * population then evolves for a number of generations without playing any
+ * more matches. Two dynamics are available through -Dtournament.dynamics:
+ *
+ *   replicator  shares of an infinite population (the default)
+ *   moran       a finite population of -Dtournament.populationSize
+ *               individuals, one generation being that many births and
+ *               deaths, until one strategy takes over
+ *
+ * The population starts with every strategy equally represented, and the
+ * share of each strategy after every generation is written to
+ * evolution_results/population_shares.csv.
+ */
+public class ThreePrisonersDilemmaEvolution {
+    // Population dynamics: replicator or moran
+    String dynamics = System.getProperty("tournament.dynamics", "replicator");
+
+    // Number of generations to run, e.g. -Dtournament.generations=5000
+    int generations = Integer.getInteger("tournament.generations", 1000);
+
+    // Number of individuals in the Moran process
+    int populationSize = Integer.getInteger("tournament.populationSize", 180);
+
+    final Tournament tournament = new Tournament(Strategies.standard());
+
+    ThreePrisonersDilemmaEvolution() {
+        tournament.verbose = false;
+    }
+
+    void run() throws IOException {
+        File outputDir = new File("evolution_results");
+        if (!outputDir.exists()) {
+            outputDir.mkdir();
+        }
+
+        String[] names = tournament.playerNames();
+        PayoffTensor tensor = PayoffTensor.cached(tournament.executor(), tournament.seed,
+                new File("evolution_results/payoff_tensor.bin"));
+
+        PrintWriter writer = new PrintWriter(new FileWriter("evolution_results/population_shares.csv"));
+        writer.print("Generation");
+        for (String name : names)
+            writer.print("," + name);
+        writer.println();
+
+        double[] shares = new double[names.length];
+        int generation = 0;
+        switch (dynamics) {
+        case "replicator":
+            for (int i = 0; i < shares.length; i++)
+                shares[i] = 1.0 / shares.length;
+            writeShares(writer, generation, shares);
+            for (generation = 1; generation <= generations; generation++) {
+                shares = PopulationDynamics.replicatorStep(tensor, shares);
+                writeShares(writer, generation, shares);
+            }
+            generation--;
+            break;
+        case "moran":
+            if (populationSize < 3)
+                throw new IllegalArgumentException("tournament.populationSize must be at least 3");
+            int[] counts = new int[names.length];
+            for (int i = 0; i < populationSize; i++)
+                counts[i % counts.length]++;
+            PopulationDynamics.Moran moran = new PopulationDynamics.Moran(tensor, counts, tournament.seed);
+            writeShares(writer, generation, shares(moran.counts));
+            while (generation < generations && !moran.fixated()) {
+                for (int step = 0; step < populationSize && !moran.fixated(); step++)
+                    moran.step();
+                generation++;
+                writeShares(writer, generation, shares(moran.counts));
+            }
+            shares = shares(moran.counts);
+            break;
+        default:
+            writer.close();
+            throw new IllegalArgumentException("Unknown tournament.dynamics: " + dynamics);
+        }
+        writer.close();
+        System.out.println("Population shares saved to: evolution_results/population_shares.csv");
+
+        int[] sortedOrder = new int[shares.length];
+        // Sort strategies by final share
+        for (int i = 0; i < shares.length; i++) {
+            int j = i - 1;
+            for (; j >= 0; j--) {
+                if (shares[i] > shares[sortedOrder[j]])
+                    sortedOrder[j + 1] = sortedOrder[j];
+                else
+                    break;
+            }
+            sortedOrder[j + 1] = i;
+        }
+
+        System.out.println();
+        System.out.println("Population after " + generation + " generations (" + dynamics + ", seed "
+                + tournament.seed + ")");
+        for (int i = 0; i < shares.length; i++)
+            System.out.println(names[sortedOrder[i]] + ": " + String.format("%.4f", shares[sortedOrder[i]]));
+    }
+
+    static double[] shares(int[] counts) {
+        int total = 0;
+        for (int count : counts)
+            total += count;
+        double[] shares = new double[counts.length];
+        for (int i = 0; i < counts.length; i++)
+            shares[i] = (double) counts[i] / total;
+        return shares;
+    }
+
+    static void writeShares(PrintWriter writer, int generation, double[] shares) {
+        writer.print(generation);
+        for (double share : shares)
+            writer.print("," + String.format("%.6f", share));
+        writer.println();
+    }
+
+    public static void main(String[] args) {
+        try {
+            new ThreePrisonersDilemmaEvolution().run();
+        } catch (IOException e) {
+            System.err.println("Error writing output files: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
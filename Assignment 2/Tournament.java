@@ -0,0 +1,249 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+/*
+ * A configurable three-player tournament: one run of every triple
+ * (runTournament), or a sweep of experiments written to a directory of logs,
+ * tables and charts (runExperiments).
+ *
+ * ThreePrisonersDilemma, ThreePrisonersDilemmaExperiment and
+ * ThreePrisonersDilemmaExperimentDefect are configurations of this class.
+ * The strategies come from a StrategyRegistry, and everything else from
+ * tournament.* system properties or the fields below, so a new line-up or
+ * output needs no copy of the tournament code.
+ */
+class Tournament {
+    final StrategyRegistry.Roster roster;
+
+    final int numPlayers;
+
+    boolean verbose = true; // set verbose = false if you get too much text output
+
+    // Number of threads playing the triples, e.g. -Dtournament.parallelism=8
+    int parallelism = Integer.getInteger("tournament.parallelism", 1);
+
+    // Seed of all random draws; pass -Dtournament.seed=<seed> to repeat a run
+    long seed = Long.getLong("tournament.seed", Rng.randomSeed());
+
+    // Maximum number of deterministic matches remembered; 0 turns the cache off
+    int cacheSize = Integer.getInteger("tournament.cacheSize", MatchCache.DEFAULT_CAPACITY);
+
+    // With -Dtournament.expected=true every triple scores its expected score
+    // (see MarkovEngine) instead of the score of one random match
+    boolean expected = Boolean.parseBoolean(System.getProperty("tournament.expected", "false"));
+
+    // Number of experiments in the sweep, e.g. -Dtournament.experiments=100.
+    // In adaptive mode this is the most that will be run.
+    int experiments = Integer.getInteger("tournament.experiments", 50);
+
+    // Number of experiments played at the same time, e.g. -Dtournament.experimentParallelism=4
+    int experimentParallelism = Integer.getInteger("tournament.experimentParallelism", 1);
+
+    // Whether every experiment's scores are kept for the consolidated table and
+    // score plot. With -Dtournament.keepScores=false only running statistics
+    // are kept, so memory stays constant however many experiments are run.
+    boolean keepScores = Boolean.parseBoolean(System.getProperty("tournament.keepScores", "true"));
+
+    // With -Dtournament.adaptive=true, experiments stop as soon as every pair
+    // of strategies is ranked (see SequentialRanking), after at least
+    // minExperiments of them
+    boolean adaptive = Boolean.parseBoolean(System.getProperty("tournament.adaptive", "false"));
+    int minExperiments = Integer.getInteger("tournament.minExperiments", 10);
+
+    // Confidence level of the rankings and of the intervals in the statistics table
+    double confidence = Double.parseDouble(System.getProperty("tournament.confidence", "0.95"));
+
+    // Score difference, in points, below which two strategies count as tied
+    double indifference = Double.parseDouble(System.getProperty("tournament.indifference", "1.0"));
+
+    // Experiments between checkpoints of the sweep (see Checkpoint), e.g.
+    // -Dtournament.checkpointInterval=100; 0 turns checkpoints off
+    int checkpointInterval = Integer.getInteger("tournament.checkpointInterval", 10);
+
+    // With -Dtournament.matchStore=true every match is also written to
+    // match_store.bin, a columnar file for later analysis (see MatchStore)
+    boolean matchStore = Boolean.parseBoolean(System.getProperty("tournament.matchStore", "false"));
+
+    // With -Dtournament.trace=true the moves of every match are written to
+    // move_traces.bin (see MoveTraces)
+    boolean trace = Boolean.parseBoolean(System.getProperty("tournament.trace", "false"));
+
+    // Directory of the experiment log, tables and charts
+    String outputDirectory = "experiment_results";
+
+    // Written after the experiments, in this order
+    List<ExperimentReports.Report> reports = ExperimentReports.standard();
+
+    TournamentExecutor executor;
+
+    // The strategies playing, e.g. -Dtournament.roster=default,Lian_HongShenJordan_Player
+    Tournament(StrategyRegistry strategies) {
+        this(strategies.roster(System.getProperty("tournament.roster")));
+    }
+
+    Tournament(StrategyRegistry.Roster roster) {
+        this.roster = roster;
+        numPlayers = roster.size();
+    }
+
+    Player makePlayer(int which) {
+        return roster.makePlayer(which);
+    }
+
+    // Shared by experiments running side by side
+    synchronized TournamentExecutor executor() {
+        if (executor == null)
+            executor = new TournamentExecutor(numPlayers, roster, ThreePrisonersDilemma.payoff, parallelism,
+                    cacheSize);
+        return executor;
+    }
+
+    String[] playerNames() {
+        return roster.names();
+    }
+
+    String outputFile(String name) {
+        return outputDirectory + "/" + name;
+    }
+
+    void runTournament() {
+        float[] totalScore = new float[numPlayers];
+
+        // The executor plays each triple of players against each other.
+        // Note that we include duplicates: two copies of your strategy will play once
+        // against each other strategy, and three copies of your strategy will play
+        // once.
+
+        TournamentExecutor.Results results = expected ? executor().expected(seed) : executor().run(seed);
+        results.addTo(totalScore);
+        if (verbose) {
+            String[] names = playerNames();
+            for (int t = 0; t < results.size(); t++)
+                System.out.println(names[results.first[t]] + " scored " + results.score(t, 0) + " points, "
+                        + names[results.second[t]] + " scored " + results.score(t, 1) + " points, and "
+                        + names[results.third[t]] + " scored " + results.score(t, 2) + " points."
+                        + (expected ? " (Expected)" : " (Rounds: " + results.rounds[t] + ")"));
+        }
+        int[] sortedOrder = new int[numPlayers];
+        // This loop sorts the players by their score.
+        for (int i = 0; i < numPlayers; i++) {
+            int j = i - 1;
+            for (; j >= 0; j--) {
+                if (totalScore[i] > totalScore[sortedOrder[j]])
+                    sortedOrder[j + 1] = sortedOrder[j];
+                else
+                    break;
+            }
+            sortedOrder[j + 1] = i;
+        }
+
+        // Finally, print out the sorted results.
+        if (verbose)
+            System.out.println();
+        System.out.println((expected ? "Expected Tournament Results" : "Tournament Results") + " (seed " + seed + ")");
+        String[] names = playerNames();
+        for (int i = 0; i < numPlayers; i++)
+            System.out.println(names[sortedOrder[i]] + ": " + totalScore[sortedOrder[i]] + " points.");
+
+    } // end of runTournament()
+
+    // Play each triple of players against each other, on the stream of this experiment
+    TournamentExecutor.Results playTournament(int experimentNum) {
+        return executor().run(Rng.experimentSeed(seed, experimentNum));
+    }
+
+    // Log the results of a tournament and add them to the score history.
+    // The log formats the matches and standings on its own thread.
+    void recordTournament(int experimentNum, TournamentExecutor.Results results, TournamentLog log,
+            ScoreMatrix scores, SequentialRanking ranking) throws IOException {
+        float[] totalScore = new float[numPlayers];
+        log.experiment(experimentNum, results);
+        results.addTo(totalScore);
+
+        // Store scores for plotting later
+        scores.add(totalScore);
+        ranking.add(totalScore);
+    }
+
+    void runExperiments() throws IOException {
+        // Create a directory for output files
+        File outputDir = new File(outputDirectory);
+        if (!outputDir.exists()) {
+            outputDir.mkdir();
+        }
+
+        // Matrix to store scores for each player across experiments
+        ScoreMatrix scores = new ScoreMatrix(playerNames(), experiments, keepScores);
+
+        // Pairwise score differences, to tell when the ranking is settled
+        SequentialRanking ranking = new SequentialRanking(scores.strategies(), confidence, indifference,
+                minExperiments);
+
+        // Pick up an interrupted sweep where its last checkpoint left off.
+        // Without an explicit -Dtournament.seed the checkpoint's seed is used.
+        File checkpointFile = new File(outputFile("checkpoint.bin"));
+        File logFile = new File(TournamentLog.path(outputFile("tournament_log")));
+        Checkpoint checkpoint = checkpointInterval > 0 ? Checkpoint.load(checkpointFile, seed,
+                System.getProperty("tournament.seed") != null, logFile, scores, ranking) : null;
+        if (checkpoint != null) {
+            seed = checkpoint.seed;
+            System.out.println("Resuming after experiment " + checkpoint.experiments + " from " + checkpointFile);
+        }
+
+        // Create log file for tournament results
+        TournamentLog log = TournamentLog.open(outputFile("tournament_log"), playerNames(), seed,
+                checkpoint != null ? checkpoint.logLength : -1);
+        MatchStore store = matchStore ? MatchStore.create(outputFile("match_store.bin"), playerNames(), seed,
+                executor().tripleCount(), checkpoint != null ? checkpoint.experiments : 0) : null;
+        executor().trace = trace;
+        MoveTraces traces = trace ? MoveTraces.open(outputFile("move_traces.bin"), playerNames(), seed,
+                checkpoint != null ? checkpoint.experiments : 0) : null;
+
+        // Run the experiments, several at a time if asked to, and record
+        // them in experiment order. In adaptive mode stop once the ranking
+        // is settled.
+        int experimentsRun = ExperimentRunner.run(checkpoint != null ? checkpoint.experiments + 1 : 1, experiments,
+                experimentParallelism, this::playTournament, (i, results) -> {
+                    System.out.println("Finished experiment " + i + " of " + experiments);
+                    recordTournament(i, results, log, scores, ranking);
+                    if (store != null)
+                        store.experiment(i, results);
+                    if (traces != null)
+                        traces.experiment(i, results);
+                    if (checkpointInterval > 0 && i % checkpointInterval == 0 && i < experiments) {
+                        if (store != null)
+                            store.force();
+                        if (traces != null)
+                            traces.force();
+                        Checkpoint.save(checkpointFile, this, scores, ranking, log.flush());
+                    }
+                }, () -> adaptive && ranking.done());
+        int unresolved = ranking.unresolvedPairs();
+        if (unresolved == 0)
+            System.out.println("Every pair of strategies ranked at " + confidence + " confidence after "
+                    + experimentsRun + " experiments");
+        else
+            System.out.println(unresolved + " of " + ranking.pairs() + " pairs of strategies not yet ranked at "
+                    + confidence + " confidence after " + experimentsRun + " experiments");
+
+        // Close the log file
+        log.close();
+        System.out.println("Log file saved to: " + log.path);
+        if (store != null) {
+            store.close();
+            System.out.println("Match store saved to: " + store.path);
+        }
+        if (traces != null) {
+            traces.close();
+            System.out.println("Move traces saved to: " + traces.path);
+        }
+
+        // The sweep is complete, so there is nothing left to resume
+        Files.deleteIfExists(checkpointFile.toPath());
+
+        for (ExperimentReports.Report report : reports)
+            report.write(this, scores);
+    }
+}
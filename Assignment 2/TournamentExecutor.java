@@ -0,0 +1,460 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Plays every triple i <= j <= k of a tournament, either on the calling
+ * thread or spread over a ForkJoinPool.
+ *
+ * Each triple writes its rounds and scores into its own slot of a Results
+ * object, so worker threads never share an accumulator or a lock. Callers add
+ * the slots into totalScore afterwards in triple order, which keeps the float
+ * sums (and therefore the ranking) exactly the same as a sequential run.
+ *
+ * Deterministic players are compiled into StateMachines up front (unless
+ * -Dtournament.compileStrategies=false), and matches between three of them
+ * are played by the table interpreter in MatchEngine.
+ *
+ * Deterministic players that declare the same Player.equivalenceKey are
+ * played as one behaviour. Before a run plays any match, it groups the
+ * deterministic triples by seating of behaviours and round count; only the
+ * first triple of each group is played, and its rounds and scores are
+ * copied to the rest of the group afterwards. A match between copies, e.g.
+ * the 14 NastyPlayers of the defect roster, is therefore simulated once per
+ * run, with or without the match cache. Seats are kept in order, as a
+ * strategy may treat its two opponents differently. The match cache, keyed
+ * by behaviours as well, carries scores over from one run to the next.
+ *
+ * With -Dtournament.metrics=true the players are wrapped to time their
+ * strategies, and every match is counted, cached or simulated (see
+ * StrategyMetrics). Strategies are then not compiled, as compiled matches
+ * run no strategy code to time.
+ *
+ * With trace set, every match played by run(seed) also records its moves
+ * into Results.traces (see MoveTraces). Traced matches are always simulated,
+ * as the match cache keeps only scores.
+ *
+ * expected(seed) computes expected scores instead of sampling one match per
+ * triple: exactly with MarkovEngine where all three players have a
+ * StochasticMachine, and otherwise as the mean of EXPECTED_SAMPLES matches.
+ */
+class TournamentExecutor {
+    // Creates a fresh copy of the player with the given index, and names it
+    // without creating one
+    interface PlayerFactory {
+        Player makePlayer(int which);
+
+        String name(int which);
+    }
+
+    // A task stops splitting once it holds this many triples
+    static final int CHUNK_SIZE = 32;
+
+    // Matches sampled per triple by expected(seed) when a player has no
+    // StochasticMachine, e.g. -Dtournament.expectedSamples=10000
+    static final int EXPECTED_SAMPLES = Integer.getInteger("tournament.expectedSamples", 1000);
+
+    static final int MIN_ROUNDS = 90, MAX_ROUNDS = 110;
+
+    final int numPlayers;
+    final PlayerFactory factory;
+    final int[][][] payoff;
+    final GroupPayoff groupPayoff;
+    final int parallelism;
+
+    // The triples in the order of the sequential i <= j <= k loop
+    final int[] first, second, third;
+
+    ForkJoinPool pool;
+
+    // Engines are not thread-safe, so every thread playing triples (the
+    // calling threads as well as pool threads) keeps its own
+    final ThreadLocal<MatchEngine> engines;
+    final ThreadLocal<MarkovEngine> markovEngines;
+
+    // Scores of deterministic matches, kept across runs; null when disabled
+    final MatchCache cache;
+
+    // Counters of each player's strategy when metrics are on, else null
+    final StrategyMetrics.Counters[] metrics;
+
+    // Whether run(seed) records the moves of every match
+    boolean trace;
+
+    // The first player that behaves as each player does: the player itself,
+    // unless it is a deterministic copy of an earlier one
+    final int[] behaviour;
+
+    // For each triple of deterministic players, the first triple seating the
+    // same behaviours; -1 where a player is not deterministic
+    final int[] behaviourTriple;
+
+    // Whether any two triples seat the same behaviours, so that run(seed)
+    // has matches to share
+    final boolean sharesBehaviours;
+
+    // Compiled form of each player, or null where it cannot be compiled.
+    // Matches between three compiled players run on the table interpreter.
+    final StateMachine[] machines;
+
+    // Markov form of each player for expected(seed), built on first use;
+    // null where a player has none
+    StochasticMachine[] stochasticMachines;
+
+    TournamentExecutor(int numPlayers, PlayerFactory factory, int[][][] payoff, int parallelism, int cacheSize) {
+        this.numPlayers = numPlayers;
+        this.factory = factory;
+        this.payoff = payoff;
+        this.groupPayoff = GroupPayoff.of(payoff);
+        this.parallelism = Math.max(1, parallelism);
+        this.engines = ThreadLocal.withInitial(() -> new MatchEngine(payoff));
+        this.markovEngines = ThreadLocal.withInitial(() -> new MarkovEngine(payoff, roundsDistribution()));
+        this.cache = cacheSize > 0 ? new MatchCache(cacheSize) : null;
+
+        behaviour = behaviours(numPlayers, factory);
+        metrics = StrategyMetrics.ENABLED ? new StrategyMetrics.Counters[numPlayers] : null;
+        if (metrics != null)
+            for (int w = 0; w < numPlayers; w++)
+                metrics[w] = StrategyMetrics.get().counters(factory.name(w));
+        machines = new StateMachine[numPlayers];
+        if (!StrategyMetrics.ENABLED
+                && Boolean.parseBoolean(System.getProperty("tournament.compileStrategies", "true"))) {
+            for (int w = 0; w < numPlayers; w++) {
+                int which = w;
+                machines[w] = behaviour[w] != w ? machines[behaviour[w]]
+                        : StateMachine.compile(() -> factory.makePlayer(which), groupPayoff);
+            }
+        }
+
+        int count = numPlayers * (numPlayers + 1) * (numPlayers + 2) / 6;
+        first = new int[count];
+        second = new int[count];
+        third = new int[count];
+        int t = 0;
+        for (int i = 0; i < numPlayers; i++)
+            for (int j = i; j < numPlayers; j++)
+                for (int k = j; k < numPlayers; k++) {
+                    first[t] = i;
+                    second[t] = j;
+                    third[t] = k;
+                    t++;
+                }
+
+        boolean[] deterministic = new boolean[numPlayers];
+        for (int w = 0; w < numPlayers; w++)
+            deterministic[w] = factory.makePlayer(w).isDeterministic();
+        behaviourTriple = new int[count];
+        Map<Long, Integer> firstWithBehaviours = new HashMap<>();
+        boolean shares = false;
+        for (t = 0; t < count; t++) {
+            if (!deterministic[first[t]] || !deterministic[second[t]] || !deterministic[third[t]]) {
+                behaviourTriple[t] = -1;
+                continue;
+            }
+            long key = MatchCache.key(behaviour[first[t]], behaviour[second[t]], behaviour[third[t]], 0);
+            Integer earlier = firstWithBehaviours.putIfAbsent(key, t);
+            behaviourTriple[t] = earlier == null ? t : earlier;
+            shares |= earlier != null;
+        }
+        sharesBehaviours = shares;
+    }
+
+    // Maps every player to the first player with the same equivalence key,
+    // counting deterministic players only
+    static int[] behaviours(int numPlayers, PlayerFactory factory) {
+        int[] behaviour = new int[numPlayers];
+        Map<String, Integer> firstWithKey = new HashMap<>();
+        for (int w = 0; w < numPlayers; w++) {
+            Player player = factory.makePlayer(w);
+            String key = player.isDeterministic() ? player.equivalenceKey() : null;
+            if (key == null)
+                behaviour[w] = w;
+            else
+                behaviour[w] = firstWithKey.merge(key, w, Math::min);
+        }
+        return behaviour;
+    }
+
+    int tripleCount() {
+        return first.length;
+    }
+
+    // Plays every triple once and returns the per-triple results. Each match
+    // draws from its own random stream derived from seed and its triple.
+    // Several threads may call run at the same time, e.g. to play
+    // experiments side by side.
+    Results run(long seed) {
+        Results results = new Results(this, seed);
+        int[] source = sharesBehaviours ? sources(seed) : null;
+        if (parallelism == 1)
+            play(engines.get(), results, source, 0, tripleCount());
+        else
+            pool().invoke(new PlayTask(results, source, 0, tripleCount(), false));
+        if (source != null)
+            copyShared(results, source);
+        return results;
+    }
+
+    /*
+     * The triple whose match each triple of run(seed) takes its result from:
+     * the first triple seating the same behaviours for the same number of
+     * rounds, or the triple itself. A deterministic match draws nothing but
+     * its round count, so that is the first number of its stream.
+     */
+    int[] sources(long seed) {
+        int[] source = new int[tripleCount()];
+        Map<Long, Integer> firstOfGroup = new HashMap<>();
+        for (int t = 0; t < source.length; t++) {
+            source[t] = t;
+            if (behaviourTriple[t] < 0)
+                continue;
+            double u = new SplittableRandom(Rng.matchSeed(seed, first[t], second[t], third[t])).nextDouble();
+            long group = (long) behaviourTriple[t] * (MAX_ROUNDS + 1) + rounds(u);
+            Integer earlier = firstOfGroup.putIfAbsent(group, t);
+            if (earlier != null)
+                source[t] = earlier;
+        }
+        return source;
+    }
+
+    // Copies the rounds and scores of every shared match to the triples that
+    // did not play it
+    void copyShared(Results results, int[] source) {
+        for (int t = 0; t < source.length; t++) {
+            int s = source[t];
+            if (s == t)
+                continue;
+            results.rounds[t] = results.rounds[s];
+            System.arraycopy(results.scores, 3 * s, results.scores, 3 * t, 3);
+            if (results.traces != null)
+                results.traces[t] = results.traces[s];
+            if (metrics != null)
+                StrategyMetrics.get().cachedMatch(metrics[first[t]], metrics[second[t]], metrics[third[t]]);
+        }
+    }
+
+    // Number of rounds of a match, between MIN_ROUNDS and MAX_ROUNDS, for a
+    // uniform u in [0, 1)
+    static int rounds(double u) {
+        return MIN_ROUNDS + (int) Math.rint((MAX_ROUNDS - MIN_ROUNDS) * u);
+    }
+
+    // Expected per-round score of every triple, with rounds[t] left at 0.
+    // seed is only used by triples that have to be sampled.
+    Results expected(long seed) {
+        stochasticMachines();
+        Results results = new Results(this, seed);
+        if (parallelism == 1)
+            playExpected(engines.get(), markovEngines.get(), results, 0, tripleCount());
+        else
+            pool().invoke(new PlayTask(results, null, 0, tripleCount(), true));
+        return results;
+    }
+
+    synchronized StochasticMachine[] stochasticMachines() {
+        if (stochasticMachines == null) {
+            stochasticMachines = new StochasticMachine[numPlayers];
+            for (int w = 0; w < numPlayers; w++) {
+                int which = w;
+                StateMachine machine = machines[w] != null ? machines[w]
+                        : StateMachine.compile(() -> factory.makePlayer(which), groupPayoff);
+                stochasticMachines[w] = machine != null ? StochasticMachine.of(machine)
+                        : factory.makePlayer(w).stochasticMachine();
+            }
+        }
+        return stochasticMachines;
+    }
+
+    // Probability of each number of rounds, indexed by rounds. A match plays
+    // MIN_ROUNDS + rint(20 * U) rounds for a uniform U in [0, 1), so the two
+    // end counts are half as likely as the ones in between.
+    static double[] roundsDistribution() {
+        int span = MAX_ROUNDS - MIN_ROUNDS;
+        double[] probability = new double[MAX_ROUNDS + 1];
+        for (int k = 0; k <= span; k++)
+            probability[MIN_ROUNDS + k] = (k == 0 || k == span ? 0.5 : 1.0) / span;
+        return probability;
+    }
+
+    synchronized ForkJoinPool pool() {
+        if (pool == null)
+            pool = new ForkJoinPool(parallelism);
+        return pool;
+    }
+
+    // Plays triples [from, to) with the given engine, except those whose
+    // source (if any) is another triple.
+    void play(MatchEngine engine, Results results, int[] source, int from, int to) {
+        for (int t = from; t < to; t++) {
+            if (source != null && source[t] != t)
+                continue;
+            Rng.beginMatch(results.seed, first[t], second[t], third[t]);
+            try {
+                playMatch(engine, t, results, t);
+            } finally {
+                Rng.endMatch();
+            }
+        }
+    }
+
+    // Computes the expected scores of triples [from, to).
+    void playExpected(MatchEngine engine, MarkovEngine markov, Results results, int from, int to) {
+        Results sample = new Results(1, results.seed);
+        for (int t = from; t < to; t++) {
+            StochasticMachine machineA = stochasticMachines[first[t]], machineB = stochasticMachines[second[t]],
+                    machineC = stochasticMachines[third[t]];
+            if (machineA != null && machineB != null && machineC != null) {
+                double[] expected = markov.expectedScoresOfMatch(machineA, machineB, machineC);
+                for (int seat = 0; seat < 3; seat++)
+                    results.scores[3 * t + seat] = (float) expected[seat];
+                continue;
+            }
+            double[] sum = new double[3];
+            for (int n = 0; n < EXPECTED_SAMPLES; n++) {
+                Rng.beginMatch(Rng.mix(results.seed, n), first[t], second[t], third[t]);
+                try {
+                    playMatch(engine, t, sample, 0);
+                } finally {
+                    Rng.endMatch();
+                }
+                for (int seat = 0; seat < 3; seat++)
+                    sum[seat] += sample.score(0, seat);
+            }
+            for (int seat = 0; seat < 3; seat++)
+                results.scores[3 * t + seat] = (float) (sum[seat] / EXPECTED_SAMPLES);
+        }
+    }
+
+    // Plays one match of triple t and stores it in slot of results. The
+    // match's random stream must already be bound.
+    void playMatch(MatchEngine engine, int t, Results results, int slot) {
+        StateMachine machineA = machines[first[t]], machineB = machines[second[t]], machineC = machines[third[t]];
+        boolean compiled = machineA != null && machineB != null && machineC != null;
+        Player A = null, B = null, C = null;
+        if (!compiled) {
+            A = factory.makePlayer(first[t]); // Create a fresh copy of each player
+            B = factory.makePlayer(second[t]);
+            C = factory.makePlayer(third[t]);
+            if (metrics != null) {
+                A = new StrategyMetrics.InstrumentedPlayer(A, metrics[first[t]]);
+                B = new StrategyMetrics.InstrumentedPlayer(B, metrics[second[t]]);
+                C = new StrategyMetrics.InstrumentedPlayer(C, metrics[third[t]]);
+            }
+        }
+        // Between 90 and 110 rounds
+        int rounds = rounds(Rng.random());
+        float[] matchResults = null;
+        boolean deterministic = compiled || (A.isDeterministic() && B.isDeterministic() && C.isDeterministic());
+        int i = behaviour[first[t]], j = behaviour[second[t]], k = behaviour[third[t]];
+        boolean cached = deterministic && cache != null && !trace;
+        if (cached)
+            matchResults = cache.get(i, j, k, rounds);
+        engine.tracing = trace && results.traces != null;
+        if (matchResults != null && metrics != null)
+            StrategyMetrics.get().cachedMatch(metrics[first[t]], metrics[second[t]], metrics[third[t]]);
+        if (matchResults == null) {
+            long bytes = metrics != null ? StrategyMetrics.allocatedBytes() : 0;
+            long start = metrics != null ? System.nanoTime() : 0;
+            if (compiled)
+                matchResults = engine.scoresOfMatch(machineA, machineB, machineC, rounds);
+            else
+                matchResults = engine.scoresOfMatch(A, B, C, rounds);
+            if (metrics != null) {
+                long nanos = System.nanoTime() - start;
+                StrategyMetrics.get().match(metrics[first[t]], metrics[second[t]], metrics[third[t]], nanos,
+                        StrategyMetrics.allocatedBytes() - bytes);
+                ((StrategyMetrics.InstrumentedPlayer) A).flush();
+                ((StrategyMetrics.InstrumentedPlayer) B).flush();
+                ((StrategyMetrics.InstrumentedPlayer) C).flush();
+            }
+            if (cached)
+                cache.put(i, j, k, rounds, matchResults);
+        }
+        if (engine.tracing)
+            results.traces[slot] = engine.trace();
+        results.rounds[slot] = rounds;
+        results.scores[3 * slot] = matchResults[0];
+        results.scores[3 * slot + 1] = matchResults[1];
+        results.scores[3 * slot + 2] = matchResults[2];
+    }
+
+    class PlayTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Results results;
+        final int[] source;
+        final int from, to;
+        final boolean expected;
+
+        PlayTask(Results results, int[] source, int from, int to, boolean expected) {
+            this.results = results;
+            this.source = source;
+            this.from = from;
+            this.to = to;
+            this.expected = expected;
+        }
+
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                if (expected)
+                    playExpected(engines.get(), markovEngines.get(), results, from, to);
+                else
+                    play(engines.get(), results, source, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PlayTask(results, source, from, mid, expected),
+                    new PlayTask(results, source, mid, to, expected));
+        }
+    }
+
+    // Results of one run, indexed by triple number t
+    static class Results {
+        final int[] first, second, third;
+        final long seed;
+        final int[] rounds;
+        final float[] scores; // scores[3 * t + seat], seat 0 = first player
+        final byte[][] traces; // Encoded moves of each match, or null when not traced
+
+        Results(TournamentExecutor executor, long seed) {
+            this.seed = seed;
+            first = executor.first;
+            second = executor.second;
+            third = executor.third;
+            rounds = new int[executor.tripleCount()];
+            scores = new float[3 * executor.tripleCount()];
+            traces = executor.trace ? new byte[executor.tripleCount()][] : null;
+        }
+
+        // Empty results for count triples, filled in by the caller
+        Results(int count, long seed) {
+            this.seed = seed;
+            first = new int[count];
+            second = new int[count];
+            third = new int[count];
+            rounds = new int[count];
+            scores = new float[3 * count];
+            traces = null;
+        }
+
+        int size() {
+            return rounds.length;
+        }
+
+        float score(int t, int seat) {
+            return scores[3 * t + seat];
+        }
+
+        // Adds every match score into totalScore, in the same order as the
+        // sequential triple loop.
+        void addTo(float[] totalScore) {
+            for (int t = 0; t < size(); t++) {
+                totalScore[first[t]] = totalScore[first[t]] + scores[3 * t];
+                totalScore[second[t]] = totalScore[second[t]] + scores[3 * t + 1];
+                totalScore[third[t]] = totalScore[third[t]] + scores[3 * t + 2];
+            }
+        }
+    }
+}
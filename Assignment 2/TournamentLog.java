@@ -0,0 +1,382 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/*
+ * The tournament log of an experiment sweep, written by a background thread.
+ *
+ * The tournament thread only queues the Results of each experiment, whose
+ * columns already hold one fixed-size record per match. Formatting and file
+ * output happen on the writer thread, so they no longer slow down the matches.
+ *
+ * Two formats are available through -Dtournament.logFormat:
+ *   text    the readable log, one sentence per match (the default)
+ *   binary  a compact file of 20-byte match records
+ *
+ * A binary log is turned back into the text log with
+ *   java TournamentLog experiment_results/tournament_log.bin
+ *
+ * flush() waits until everything queued is on disk and returns the length of
+ * the file, which a Checkpoint records. A resumed sweep reopens the log at
+ * that length, dropping anything written after the checkpoint.
+ *
+ * Binary layout, big-endian as written by DataOutputStream:
+ *   int MAGIC, long seed, short player count, the names as modified UTF-8,
+ *   then for each experiment: int experiment number, int match count, and
+ *   for each match: short i, short j, short k, short rounds, float x 3 scores.
+ */
+class TournamentLog implements AutoCloseable {
+    static final int MAGIC = 0x54504431; // "TPD1"
+
+    // Experiments that may be waiting for the writer before queueing blocks
+    static final int QUEUE_CAPACITY = 16;
+
+    // Queued to stop the writer thread
+    private static final Batch END = new Batch(0, null);
+
+    // File the log is written to
+    final String path;
+
+    private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+    private final Format format;
+    private final FileChannel channel;
+    private final String[] names;
+    private final long seed;
+    private final boolean resumed;
+    private volatile IOException failure;
+
+    // Results of one experiment waiting to be written, or a flush request
+    // that is completed with the file length once everything before it is
+    // on disk
+    static final class Batch {
+        final int experimentNum;
+        final TournamentExecutor.Results results;
+        final CompletableFuture<Long> flushed;
+
+        Batch(int experimentNum, TournamentExecutor.Results results) {
+            this(experimentNum, results, null);
+        }
+
+        Batch(int experimentNum, TournamentExecutor.Results results, CompletableFuture<Long> flushed) {
+            this.experimentNum = experimentNum;
+            this.results = results;
+            this.flushed = flushed;
+        }
+    }
+
+    // Writes batches in one of the file formats
+    interface Format {
+        void header(long seed, String[] names) throws IOException;
+
+        void experiment(int experimentNum, TournamentExecutor.Results results) throws IOException;
+
+        void flush() throws IOException;
+
+        void close() throws IOException;
+    }
+
+    /*
+     * Opens the log at basePath plus ".txt" or ".bin", depending on
+     * -Dtournament.logFormat, and starts its writer thread.
+     */
+    static TournamentLog open(String basePath, String[] names, long seed) throws IOException {
+        return open(basePath, names, seed, -1);
+    }
+
+    /*
+     * Like open(basePath, names, seed), but with resumeAt >= 0 continues an
+     * existing log after cutting it to resumeAt bytes, the length returned by
+     * flush() when the sweep was checkpointed.
+     */
+    static TournamentLog open(String basePath, String[] names, long seed, long resumeAt) throws IOException {
+        String format = logFormat();
+        if (!format.equals("text") && !format.equals("binary"))
+            throw new IllegalArgumentException("Unknown tournament.logFormat: " + format);
+        String path = path(basePath);
+        boolean resume = resumeAt >= 0;
+        FileOutputStream file = new FileOutputStream(path, resume);
+        if (resume)
+            file.getChannel().truncate(resumeAt);
+        Format writer = format.equals("text")
+                ? new TextFormat(new BufferedWriter(new OutputStreamWriter(file, Charset.defaultCharset()), 1 << 16),
+                        names)
+                : new BinaryFormat(new DataOutputStream(new BufferedOutputStream(file, 1 << 16)));
+        return new TournamentLog(path, writer, file.getChannel(), names, seed, resume);
+    }
+
+    static String logFormat() {
+        return System.getProperty("tournament.logFormat", "text");
+    }
+
+    // The file open(basePath, ...) writes to
+    static String path(String basePath) {
+        return basePath + (logFormat().equals("binary") ? ".bin" : ".txt");
+    }
+
+    // A log whose header has already been written when resumed is true
+    TournamentLog(String path, Format format, FileChannel channel, String[] names, long seed, boolean resumed) {
+        this.path = path;
+        this.format = format;
+        this.channel = channel;
+        this.names = names;
+        this.seed = seed;
+        this.resumed = resumed;
+        this.writer = new Thread(this::drain, "tournament-log");
+        writer.start();
+    }
+
+    // Queues the results of one experiment. They must not be modified afterwards.
+    void experiment(int experimentNum, TournamentExecutor.Results results) throws IOException {
+        checkFailure();
+        try {
+            queue.put(new Batch(experimentNum, results));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing experiment " + experimentNum, e);
+        }
+    }
+
+    // Waits for every queued experiment to be written and forced to disk, and
+    // returns the length of the file.
+    long flush() throws IOException {
+        checkFailure();
+        CompletableFuture<Long> flushed = new CompletableFuture<>();
+        try {
+            queue.put(new Batch(0, null, flushed));
+            return flushed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while flushing the tournament log", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Writing the tournament log failed", e.getCause());
+        }
+    }
+
+    // Waits for every queued experiment to be written, then closes the file.
+    public void close() throws IOException {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(END);
+                writer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null)
+            throw new IOException("Writing the tournament log failed", failure);
+    }
+
+    // Body of the writer thread
+    private void drain() {
+        try {
+            if (!resumed)
+                format.header(seed, names);
+            while (true) {
+                Batch batch = queue.take();
+                if (batch == END)
+                    break;
+                if (batch.flushed != null) {
+                    format.flush();
+                    channel.force(false);
+                    batch.flushed.complete(channel.position());
+                } else {
+                    format.experiment(batch.experimentNum, batch.results);
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            // Keep taking batches so that the tournament thread never blocks
+            try {
+                Batch batch;
+                while ((batch = queue.take()) != END)
+                    if (batch.flushed != null)
+                        batch.flushed.completeExceptionally(e);
+            } catch (InterruptedException ignored) {
+            }
+        } catch (InterruptedException e) {
+            failure = new IOException("Tournament log writer interrupted", e);
+        } finally {
+            try {
+                format.close();
+            } catch (IOException e) {
+                if (failure == null)
+                    failure = e;
+            }
+        }
+    }
+
+    // The readable log, with the standings of each experiment after its matches
+    static final class TextFormat implements Format {
+        final Writer out;
+        final String newline = System.lineSeparator();
+        final String[] names;
+
+        TextFormat(Writer out, String[] names) {
+            this.out = out;
+            this.names = names;
+        }
+
+        public void header(long seed, String[] names) throws IOException {
+            out.write("Seed: " + seed + newline + newline);
+        }
+
+        public void experiment(int experimentNum, TournamentExecutor.Results results) throws IOException {
+            out.write("Experiment #" + experimentNum + newline);
+            out.write("------------------------------" + newline);
+            for (int t = 0; t < results.size(); t++) {
+                out.write(names[results.first[t]] + " scored " + String.format("%.2f", results.score(t, 0))
+                        + " points, " + names[results.second[t]] + " scored "
+                        + String.format("%.2f", results.score(t, 1)) + " points, and " + names[results.third[t]]
+                        + " scored " + String.format("%.2f", results.score(t, 2)) + " points. (Rounds: "
+                        + results.rounds[t] + ")" + newline);
+            }
+
+            float[] totalScore = new float[names.length];
+            results.addTo(totalScore);
+            int[] sortedOrder = sortedOrder(totalScore);
+            out.write("\nTournament Results for Experiment #" + experimentNum + newline);
+            out.write("------------------------------" + newline);
+            for (int i = 0; i < names.length; i++)
+                out.write(names[sortedOrder[i]] + ": " + String.format("%.2f", totalScore[sortedOrder[i]])
+                        + " points." + newline);
+            out.write("\n" + newline);
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    static final class BinaryFormat implements Format {
+        final DataOutputStream out;
+
+        BinaryFormat(DataOutputStream out) {
+            this.out = out;
+        }
+
+        public void header(long seed, String[] names) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeLong(seed);
+            out.writeShort(names.length);
+            for (String name : names)
+                out.writeUTF(name);
+        }
+
+        public void experiment(int experimentNum, TournamentExecutor.Results results) throws IOException {
+            out.writeInt(experimentNum);
+            out.writeInt(results.size());
+            for (int t = 0; t < results.size(); t++) {
+                out.writeShort(results.first[t]);
+                out.writeShort(results.second[t]);
+                out.writeShort(results.third[t]);
+                out.writeShort(results.rounds[t]);
+                out.writeFloat(results.score(t, 0));
+                out.writeFloat(results.score(t, 1));
+                out.writeFloat(results.score(t, 2));
+            }
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    // Player indices sorted by descending score, ties kept in index order
+    static int[] sortedOrder(float[] totalScore) {
+        int[] sortedOrder = new int[totalScore.length];
+        for (int i = 0; i < totalScore.length; i++) {
+            int j = i - 1;
+            for (; j >= 0; j--) {
+                if (totalScore[i] > totalScore[sortedOrder[j]])
+                    sortedOrder[j + 1] = sortedOrder[j];
+                else
+                    break;
+            }
+            sortedOrder[j + 1] = i;
+        }
+        return sortedOrder;
+    }
+
+    // Prints a binary log in the text format.
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java TournamentLog <tournament_log.bin>");
+            System.exit(2);
+        }
+        try (InputStream in = new BufferedInputStream(new FileInputStream(args[0]))) {
+            Writer stdout = new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()));
+            if (!printText(in, stdout))
+                throw new IOException(args[0] + " is not a binary tournament log");
+        }
+    }
+
+    // Writes the binary log read from in to out in the text format, and
+    // flushes out. Returns false, having written nothing, if in does not
+    // start with a binary log header.
+    static boolean printText(InputStream binary, Writer out) throws IOException {
+        DataInputStream in = new DataInputStream(binary);
+        if (in.readInt() != MAGIC)
+            return false;
+        long seed = in.readLong();
+        String[] names = new String[in.readShort()];
+        for (int p = 0; p < names.length; p++)
+            names[p] = in.readUTF();
+
+        TextFormat text = new TextFormat(out, names);
+        text.header(seed, names);
+        while (true) {
+            int experimentNum;
+            try {
+                experimentNum = in.readInt();
+            } catch (EOFException e) {
+                break;
+            }
+            int count = in.readInt();
+            TournamentExecutor.Results results = new TournamentExecutor.Results(count, seed);
+            for (int t = 0; t < count; t++) {
+                results.first[t] = in.readShort();
+                results.second[t] = in.readShort();
+                results.third[t] = in.readShort();
+                results.rounds[t] = in.readShort();
+                results.scores[3 * t] = in.readFloat();
+                results.scores[3 * t + 1] = in.readFloat();
+                results.scores[3 * t + 2] = in.readFloat();
+            }
+            text.experiment(experimentNum, results);
+        }
+        out.flush();
+        return true;
+    }
+}
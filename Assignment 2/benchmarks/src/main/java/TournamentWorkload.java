@@ -0,0 +1,94 @@
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import benchmarks.Workload;
+
+/*
+ * Benchmark access to the tournament, see benchmarks.Workload. It lives in
+ * the default package so that it can use the package-private tournament
+ * classes.
+ */
+public class TournamentWorkload implements Workload {
+    final Tournament tournament = new Tournament(Strategies.standard());
+    final MatchEngine engine = new MatchEngine(ThreePrisonersDilemma.payoff);
+
+    Player player;
+    int n;
+
+    Supplier<Player> factoryA, factoryB, factoryC;
+    StateMachine machineA, machineB, machineC;
+
+    public TournamentWorkload() {
+        tournament.verbose = false;
+    }
+
+    // Factory for one of the built-in strategies or the submitted player
+    Supplier<Player> factory(String name) {
+        if (name.equals("Lian_HongShenJordan_Player"))
+            return Lian_HongShenJordan_Player::new;
+        String[] names = tournament.playerNames();
+        for (int w = 0; w < names.length; w++) {
+            int which = w;
+            if (names[w].equals(name))
+                return () -> tournament.makePlayer(which);
+        }
+        throw new IllegalArgumentException("Unknown strategy " + name);
+    }
+
+    public void prepareStrategy(String name, int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        BitHistory mine = new BitHistory(n + 1), opp1 = new BitHistory(n + 1), opp2 = new BitHistory(n + 1);
+        player = factory(name).get();
+        player.bind(mine, opp1, opp2);
+        player.bind(engine.groupPayoff);
+        for (int i = 0; i < n; i++) {
+            int move = player.nextAction(i);
+            int move1 = random.nextInt(2), move2 = random.nextInt(2);
+            player.onRoundResult(move, move1, move2);
+            mine.append(move);
+            opp1.append(move1);
+            opp2.append(move2);
+        }
+        this.n = n;
+    }
+
+    public int nextAction() {
+        return player.nextAction(n);
+    }
+
+    public void prepareMatch(String[] names, boolean compiled) {
+        factoryA = factory(names[0]);
+        factoryB = factory(names[1]);
+        factoryC = factory(names[2]);
+        machineA = machineB = machineC = null;
+        if (compiled) {
+            machineA = StateMachine.compile(factoryA, engine.groupPayoff);
+            machineB = StateMachine.compile(factoryB, engine.groupPayoff);
+            machineC = StateMachine.compile(factoryC, engine.groupPayoff);
+        }
+    }
+
+    public float[] playMatch(int rounds) {
+        if (machineA != null && machineB != null && machineC != null)
+            return engine.scoresOfMatch(machineA, machineB, machineC, rounds);
+        return engine.scoresOfMatch(factoryA.get(), factoryB.get(), factoryC.get(), rounds);
+    }
+
+    public void prepareTournament(int parallelism) {
+        tournament.parallelism = parallelism;
+        tournament.cacheSize = 0;
+        tournament.executor = null;
+    }
+
+    public float[] runTournament(long seed) {
+        float[] totalScore = new float[tournament.numPlayers];
+        tournament.executor().run(seed).addTo(totalScore);
+        return totalScore;
+    }
+
+    public float[] expectedTournament() {
+        float[] totalScore = new float[tournament.numPlayers];
+        tournament.executor().expected(0).addTo(totalScore);
+        return totalScore;
+    }
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Throughput of single 100-round matches for representative triples:
+ * deterministic strategies that settle into a cycle, strategies that count
+ * over the whole history, random strategies, and the history-based bridge.
+ * With compiled set, triples of compilable strategies use the table
+ * interpreter; the others are played by the players as usual.
+ *
+ * Triples are written with colons because JMH splits -p values on commas,
+ * e.g. -p triple=TolerantPlayer:TriggerPlayer:EndGameDefactorPlayer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class MatchBenchmark {
+
+    @Param({ "StandardT4TPlayer:NastyPlayer:PavlovPlayer", "TesterPlayer:StandardT44TPlayer:TriggerPlayer",
+            "TolerantPlayer:TriggerPlayer:EndGameDefactorPlayer", "T4TPlayer:GenerousT4TPlayer:JossPlayer",
+            "RandomPlayer:FreakyPlayer:Lian_HongShenJordan_Player" })
+    public String triple;
+
+    @Param({ "false", "true" })
+    public boolean compiled;
+
+    Workload workload;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        workload = Workload.load();
+        workload.prepareMatch(triple.split(":"), compiled);
+    }
+
+    @Benchmark
+    public float[] playMatch() {
+        return workload.playMatch(100);
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Cost of one decision of each strategy after n rounds of play. Strategies
+ * written against the history-based API (the submitted player) show how the
+ * bridge's cost grows with n.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class StrategyBenchmark {
+
+    @Param({ "NicePlayer", "NastyPlayer", "RandomPlayer", "TolerantPlayer", "FreakyPlayer", "T4TPlayer",
+            "SuspiciousT4TPlayer", "StandardT4TPlayer", "SuspiciousStandardT4TPlayer", "GenerousT4TPlayer",
+            "JossPlayer", "StandardT42TPlayer", "StandardT43TPlayer", "StandardT44TPlayer", "TesterPlayer",
+            "PavlovPlayer", "TriggerPlayer", "EndGameDefactorPlayer", "Lian_HongShenJordan_Player" })
+    public String strategy;
+
+    @Param({ "1", "10", "100" })
+    public int n;
+
+    Workload workload;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        workload = Workload.load();
+        workload.prepareStrategy(strategy, n, 42);
+    }
+
+    @Benchmark
+    public int nextAction() {
+        return workload.nextAction();
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Time of one full tournament between the 18 built-in strategies (1140
+ * matches), with the same seed every time so that every run plays exactly
+ * the same matches, and of computing the tournament's expected scores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(3)
+@State(Scope.Benchmark)
+public class TournamentBenchmark {
+
+    @Param({ "1", "4" })
+    public int parallelism;
+
+    Workload workload;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        workload = Workload.load();
+        workload.prepareTournament(parallelism);
+    }
+
+    @Benchmark
+    public float[] runTournament() {
+        return workload.runTournament(42);
+    }
+
+    @Benchmark
+    public float[] expectedTournament() {
+        return workload.expectedTournament();
+    }
+}
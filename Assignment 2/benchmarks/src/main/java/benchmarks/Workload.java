@@ -0,0 +1,42 @@
+package benchmarks;
+
+/*
+ * The operations the benchmarks measure, implemented by TournamentWorkload.
+ *
+ * The tournament classes live in the default package, which code in a named
+ * package cannot refer to, and JMH does not accept benchmarks in the default
+ * package. The benchmarks therefore reach the tournament through this
+ * interface, loading the implementation by name once during setup so that
+ * no reflection happens while measuring.
+ */
+public interface Workload {
+
+    // Creates the named strategy and plays it n rounds against opponents
+    // whose moves are drawn from the given seed.
+    void prepareStrategy(String name, int n, long seed);
+
+    // The decision for round n of the prepared strategy.
+    int nextAction();
+
+    // Prepares matches between the three named strategies. With compiled set,
+    // matches use the table interpreter when all three strategies compile.
+    void prepareMatch(String[] names, boolean compiled);
+
+    // Plays one match of the prepared triple with fresh players.
+    float[] playMatch(int rounds);
+
+    // Prepares full tournaments of the 18 built-in strategies. The match
+    // cache is turned off so that every run simulates every triple.
+    void prepareTournament(int parallelism);
+
+    // Plays one tournament and returns the total score of each strategy.
+    float[] runTournament(long seed);
+
+    // Computes the expected total score of each strategy with the Markov
+    // engine instead of sampling matches.
+    float[] expectedTournament();
+
+    static Workload load() throws ReflectiveOperationException {
+        return (Workload) Class.forName("TournamentWorkload").getDeclaredConstructor().newInstance();
+    }
+}
@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class BitHistoryTest {
+    // Enough rounds to cross several 64-round words and grow from a small capacity
+    static final int ROUNDS = 300;
+
+    static int[] randomMoves(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] moves = new int[ROUNDS];
+        for (int n = 0; n < ROUNDS; n++)
+            moves[n] = random.nextInt(2);
+        return moves;
+    }
+
+    static BitHistory historyOf(int[] moves, int capacity) {
+        BitHistory history = new BitHistory(capacity);
+        for (int move : moves)
+            history.append(move);
+        return history;
+    }
+
+    static int count(int[] moves, int from, int to) {
+        int count = 0;
+        for (int n = from; n < to; n++)
+            count += moves[n];
+        return count;
+    }
+
+    @Test
+    void getsEveryRoundAcrossWordsAndGrowth() {
+        int[] moves = randomMoves(1);
+        BitHistory history = historyOf(moves, 10);
+        assertEquals(ROUNDS, history.length());
+        for (int n = 0; n < ROUNDS; n++)
+            assertEquals(moves[n], history.get(n), "round " + n);
+        assertEquals(count(moves, 0, ROUNDS), history.defectCount());
+    }
+
+    @Test
+    void countsRangesAroundWordBoundaries() {
+        int[] moves = randomMoves(2);
+        BitHistory history = historyOf(moves, ROUNDS);
+        int[] edges = { 0, 1, 62, 63, 64, 65, 127, 128, 129, 191, 192, 193, 255, 256, 257, ROUNDS - 1, ROUNDS };
+        for (int from : edges)
+            for (int to : edges)
+                assertEquals(from < to ? count(moves, from, to) : 0, history.defectCount(from, to),
+                        "rounds " + from + " to " + to);
+    }
+
+    @Test
+    void countsTheLastRoundsAtEveryLength() {
+        int[] moves = randomMoves(3);
+        BitHistory history = new BitHistory(1);
+        for (int n = 0; n < ROUNDS; n++) {
+            history.append(moves[n]);
+            for (int k : new int[] { 1, 2, 3, 64, 65 }) {
+                int expected = count(moves, Math.max(0, n + 1 - k), n + 1);
+                assertEquals(expected, history.defectsInLast(k));
+                assertEquals(k <= n + 1 && expected == k, history.defectedInLast(k));
+            }
+        }
+    }
+
+    @Test
+    void allDefectionsFillWholeWords() {
+        BitHistory history = new BitHistory(64);
+        for (int n = 0; n < 128; n++)
+            history.append(1);
+        assertEquals(64, history.defectCount(0, 64));
+        assertEquals(64, history.defectCount(64, 128));
+        assertEquals(128, history.defectsInLast(200));
+    }
+
+    @Test
+    void intsFollowAppendsAndClear() {
+        int[] moves = randomMoves(4);
+        BitHistory history = new BitHistory(16);
+        for (int n = 0; n < ROUNDS; n++) {
+            history.append(moves[n]);
+            if (n % 37 == 0) {
+                int[] ints = history.ints();
+                for (int r = 0; r <= n; r++)
+                    assertEquals(moves[r], ints[r]);
+            }
+        }
+
+        history.clear();
+        assertEquals(0, history.length());
+        assertEquals(0, history.defectCount());
+        int[] others = randomMoves(5);
+        for (int n = 0; n < 100; n++)
+            history.append(others[n]);
+        int[] ints = history.ints();
+        for (int n = 0; n < 100; n++) {
+            assertEquals(others[n], history.get(n));
+            assertEquals(others[n], ints[n]);
+        }
+        assertEquals(count(others, 0, 100), history.defectCount(0, 100));
+    }
+}
@@ -0,0 +1,160 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CheckpointTest {
+    static final String[] NAMES = { "NicePlayer", "NastyPlayer", "TolerantPlayer" };
+
+    @TempDir
+    File directory;
+
+    static Tournament tournament(long seed) {
+        Tournament tournament = new Tournament(Strategies.standard().roster(String.join(",", NAMES)));
+        tournament.seed = seed;
+        return tournament;
+    }
+
+    static float[] randomTotals(SplittableRandom random) {
+        float[] totals = new float[NAMES.length];
+        for (int s = 0; s < totals.length; s++)
+            totals[s] = (float) (5000 + 1000 * random.nextDouble());
+        return totals;
+    }
+
+    File log(int bytes) throws IOException {
+        File log = new File(directory, "tournament_log.txt");
+        Files.write(log.toPath(), new byte[bytes]);
+        return log;
+    }
+
+    @Test
+    void restoresScoresAndRanking() throws IOException {
+        for (boolean keepScores : new boolean[] { true, false }) {
+            ScoreMatrix scores = new ScoreMatrix(NAMES, 4, keepScores);
+            SequentialRanking ranking = new SequentialRanking(NAMES.length, 0.95, 1.0, 10);
+            SplittableRandom random = new SplittableRandom(11);
+            // More experiments than expected, so that the rows have grown
+            for (int e = 0; e < 7; e++) {
+                float[] totals = randomTotals(random);
+                scores.add(totals);
+                ranking.add(totals);
+            }
+            File file = new File(directory, "checkpoint.bin");
+            File log = log(100);
+            Checkpoint.save(file, tournament(42), scores, ranking, 80);
+            assertFalse(new File(file.getPath() + ".tmp").exists());
+
+            ScoreMatrix restoredScores = new ScoreMatrix(NAMES, 4, keepScores);
+            SequentialRanking restoredRanking = new SequentialRanking(NAMES.length, 0.95, 1.0, 10);
+            Checkpoint checkpoint = Checkpoint.load(file, 42, true, log, restoredScores, restoredRanking);
+            assertNotNull(checkpoint);
+            assertEquals(42, checkpoint.seed);
+            assertEquals(7, checkpoint.experiments);
+            assertEquals(80, checkpoint.logLength);
+
+            assertEquals(7, restoredScores.experiments());
+            assertArrayEquals(scores.averages(), restoredScores.averages());
+            assertEquals(scores.max(), restoredScores.max());
+            for (int s = 0; s < NAMES.length; s++)
+                assertEquals(scores.stats[s].variance(), restoredScores.stats[s].variance());
+            if (keepScores)
+                for (int s = 0; s < NAMES.length; s++)
+                    for (int e = 0; e < 7; e++)
+                        assertEquals(scores.score(s, e), restoredScores.score(s, e));
+            assertEquals(ranking.count, restoredRanking.count);
+            assertArrayEquals(ranking.mean, restoredRanking.mean);
+            assertArrayEquals(ranking.m2, restoredRanking.m2);
+
+            // Experiments recorded after the restore carry on from the saved ones
+            float[] next = randomTotals(random);
+            scores.add(next);
+            restoredScores.add(next);
+            assertArrayEquals(scores.averages(), restoredScores.averages());
+        }
+    }
+
+    @Test
+    void ignoresCheckpointsOfOtherSweeps() throws IOException {
+        ScoreMatrix scores = new ScoreMatrix(NAMES, 10, true);
+        SequentialRanking ranking = new SequentialRanking(NAMES.length, 0.95, 1.0, 10);
+        scores.add(new float[] { 1, 2, 3 });
+        ranking.add(new float[] { 1, 2, 3 });
+        File file = new File(directory, "checkpoint.bin");
+        Checkpoint.save(file, tournament(42), scores, ranking, 50);
+
+        File log = log(50);
+        assertNull(Checkpoint.load(file, 43, true, log, new ScoreMatrix(NAMES, 10, true),
+                new SequentialRanking(NAMES.length, 0.95, 1.0, 10)));
+        assertNotNull(Checkpoint.load(file, 43, false, log, new ScoreMatrix(NAMES, 10, true),
+                new SequentialRanking(NAMES.length, 0.95, 1.0, 10)));
+        assertNull(Checkpoint.load(file, 42, true, log, new ScoreMatrix(NAMES, 10, false),
+                new SequentialRanking(NAMES.length, 0.95, 1.0, 10)));
+        String[] others = { "NicePlayer", "NastyPlayer", "PavlovPlayer" };
+        assertNull(Checkpoint.load(file, 42, true, log, new ScoreMatrix(others, 10, true),
+                new SequentialRanking(others.length, 0.95, 1.0, 10)));
+        // The log lost what was written before the checkpoint
+        assertNull(Checkpoint.load(file, 42, true, log(49), new ScoreMatrix(NAMES, 10, true),
+                new SequentialRanking(NAMES.length, 0.95, 1.0, 10)));
+        assertNull(Checkpoint.load(new File(directory, "missing.bin"), 42, true, log, new ScoreMatrix(NAMES, 10, true),
+                new SequentialRanking(NAMES.length, 0.95, 1.0, 10)));
+    }
+
+    @Test
+    void ignoresCutOrCorruptCheckpointsAndKeepsTheScores() throws IOException {
+        ScoreMatrix scores = new ScoreMatrix(NAMES, 10, true);
+        SequentialRanking ranking = new SequentialRanking(NAMES.length, 0.95, 1.0, 10);
+        SplittableRandom random = new SplittableRandom(13);
+        for (int e = 0; e < 5; e++) {
+            float[] totals = randomTotals(random);
+            scores.add(totals);
+            ranking.add(totals);
+        }
+        File file = new File(directory, "checkpoint.bin");
+        Checkpoint.save(file, tournament(42), scores, ranking, 0);
+        byte[] saved = Files.readAllBytes(file.toPath());
+        File log = log(0);
+
+        // The scores a sweep has before it tries to resume
+        float[] before = { 1, 2, 3 };
+        for (int length = 0; length < saved.length; length += 7) {
+            Files.write(file.toPath(), Arrays.copyOf(saved, length));
+            ScoreMatrix restored = new ScoreMatrix(NAMES, 10, true);
+            restored.add(before);
+            assertNull(Checkpoint.load(file, 42, true, log, restored,
+                    new SequentialRanking(NAMES.length, 0.95, 1.0, 10)), "cut at " + length);
+            assertEquals(1, restored.experiments());
+            assertEquals(2f, restored.score(1, 0));
+        }
+
+        // Trailing bytes, and an experiment count that disagrees with the body
+        Files.write(file.toPath(), Arrays.copyOf(saved, saved.length + 3));
+        assertNull(Checkpoint.load(file, 42, true, log, new ScoreMatrix(NAMES, 10, true),
+                new SequentialRanking(NAMES.length, 0.95, 1.0, 10)));
+        // The experiment count follows the magic, seed, names, keepScores
+        // flag and log format
+        int offset = 4 + 8 + 2 + 1 + 2 + TournamentLog.logFormat().length();
+        for (String name : NAMES)
+            offset += 2 + name.length();
+        byte[] corrupt = saved.clone();
+        ByteBuffer.wrap(corrupt).putInt(offset, 6);
+        Files.write(file.toPath(), corrupt);
+        assertNull(Checkpoint.load(file, 42, true, log, new ScoreMatrix(NAMES, 10, true),
+                new SequentialRanking(NAMES.length, 0.95, 1.0, 10)));
+        ByteBuffer.wrap(corrupt).putInt(offset, 5);
+        Files.write(file.toPath(), corrupt);
+        assertNotNull(Checkpoint.load(file, 42, true, log, new ScoreMatrix(NAMES, 10, true),
+                new SequentialRanking(NAMES.length, 0.95, 1.0, 10)));
+    }
+}
@@ -0,0 +1,51 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class GroupTournamentTest {
+    static final StrategyRegistry.Roster ROSTER = MatchEngineTest.ROSTER;
+
+    @Test
+    void groupsOfThreeScoreLikeTheThreePlayerTournament() {
+        for (long seed : new long[] { 1, 42 }) {
+            GroupTournament groups = new GroupTournament(ROSTER, GroupPayoff.extend(ThreePrisonersDilemma.payoff, 3),
+                    1);
+            TournamentExecutor executor = new TournamentExecutor(ROSTER.size(), ROSTER, ThreePrisonersDilemma.payoff,
+                    1, 0);
+            float[] totalScore = new float[ROSTER.size()];
+            executor.run(seed).addTo(totalScore);
+            assertArrayEquals(totalScore, groups.run(seed));
+        }
+    }
+
+    @Test
+    void listsEveryGroupOnce() {
+        // C(18 + 4 - 1, 4) groups of four, in increasing order
+        int[] members = GroupTournament.groups(18, 4);
+        assertEquals(5985 * 4, members.length);
+        for (int g = 1; g < members.length / 4; g++) {
+            int compare = 0;
+            for (int seat = 0; seat < 4 && compare == 0; seat++)
+                compare = Integer.compare(members[4 * (g - 1) + seat], members[4 * g + seat]);
+            assertEquals(-1, compare);
+        }
+    }
+
+    @Test
+    void pavlovTellsApartEveryCountOfDefectors() {
+        // With eight players up to seven others defect, and no two of the
+        // resulting states may share a key
+        Set<Long> keys = new HashSet<>();
+        for (int move = 0; move < 2; move++)
+            for (int defectors = 0; defectors <= 7; defectors++) {
+                Strategies.PavlovPlayer pavlov = new Strategies.PavlovPlayer();
+                pavlov.onGroupRoundResult(move, new int[7], defectors);
+                assertTrue(keys.add(pavlov.stateKey(1)), move + " with " + defectors + " defectors");
+            }
+    }
+}
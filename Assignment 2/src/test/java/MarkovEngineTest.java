@@ -0,0 +1,78 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class MarkovEngineTest {
+    static final StrategyRegistry.Roster ROSTER = MatchEngineTest.ROSTER;
+    static final GroupPayoff PAYOFF = GroupPayoff.of(ThreePrisonersDilemma.payoff);
+
+    static StochasticMachine machine(int which) {
+        StateMachine compiled = StateMachine.compile(() -> ROSTER.makePlayer(which), PAYOFF);
+        return compiled != null ? StochasticMachine.of(compiled) : ROSTER.makePlayer(which).stochasticMachine();
+    }
+
+    static int index(String name) {
+        return Arrays.asList(ROSTER.names()).indexOf(name);
+    }
+
+    @Test
+    void deterministicMatchesGiveTheRoundWeightedScores() {
+        double[] rounds = TournamentExecutor.roundsDistribution();
+        MarkovEngine markov = new MarkovEngine(ThreePrisonersDilemma.payoff, rounds);
+        MatchEngine engine = new MatchEngine(ThreePrisonersDilemma.payoff);
+        int[] players = MatchEngineTest.deterministic();
+        for (int i : players)
+            for (int j : players)
+                for (int k : players) {
+                    double[] expected = markov.expectedScoresOfMatch(machine(i), machine(j), machine(k));
+                    double[] weighted = new double[3];
+                    for (int r = 0; r < rounds.length; r++) {
+                        if (rounds[r] == 0)
+                            continue;
+                        float[] scores = engine.scoresOfMatch(ROSTER.makePlayer(i), ROSTER.makePlayer(j),
+                                ROSTER.makePlayer(k), r);
+                        for (int seat = 0; seat < 3; seat++)
+                            weighted[seat] += rounds[r] * scores[seat];
+                    }
+                    for (int seat = 0; seat < 3; seat++)
+                        assertEquals(weighted[seat], expected[seat], 1e-5,
+                                ROSTER.names()[i] + ", " + ROSTER.names()[j] + ", " + ROSTER.names()[k]);
+                }
+    }
+
+    @Test
+    void randomMatchesAverageToTheExpectedScores() {
+        // A fixed match length, so that every sampled match counts alike
+        int rounds = 100, samples = 20000;
+        double[] probability = new double[rounds + 1];
+        probability[rounds] = 1;
+        MarkovEngine markov = new MarkovEngine(ThreePrisonersDilemma.payoff, probability);
+        MatchEngine engine = new MatchEngine(ThreePrisonersDilemma.payoff);
+
+        String[][] triples = { { "RandomPlayer", "T4TPlayer", "PavlovPlayer" },
+                { "JossPlayer", "GenerousT4TPlayer", "TesterPlayer" },
+                { "FreakyPlayer", "SuspiciousT4TPlayer", "TolerantPlayer" } };
+        for (String[] triple : triples) {
+            int i = index(triple[0]), j = index(triple[1]), k = index(triple[2]);
+            double[] expected = markov.expectedScoresOfMatch(machine(i), machine(j), machine(k));
+            double[] mean = new double[3];
+            for (int s = 0; s < samples; s++) {
+                Rng.beginMatch(17, i, j, s);
+                try {
+                    float[] scores = engine.scoresOfMatch(ROSTER.makePlayer(i), ROSTER.makePlayer(j),
+                            ROSTER.makePlayer(k), rounds);
+                    for (int seat = 0; seat < 3; seat++)
+                        mean[seat] += scores[seat] / samples;
+                } finally {
+                    Rng.endMatch();
+                }
+            }
+            // Per-match scores vary by at most a few points, so the sample
+            // mean is within a few hundredths of the expectation
+            for (int seat = 0; seat < 3; seat++)
+                assertEquals(expected[seat], mean[seat], 0.05, String.join(", ", triple) + ", seat " + seat);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class MatchCacheTest {
+    @Test
+    void returnsWhatWasPutUnderTheWholeKey() {
+        MatchCache cache = new MatchCache(100);
+        float[] scores = { 1, 2, 3 };
+        cache.put(1, 2, 3, 100, scores);
+        assertArrayEquals(scores, cache.get(1, 2, 3, 100));
+        assertNull(cache.get(1, 2, 3, 101));
+        assertNull(cache.get(1, 3, 2, 100));
+        assertEquals(1, cache.hits.sum());
+        assertEquals(2, cache.misses.sum());
+    }
+
+    @Test
+    void staysWithinItsCapacity() {
+        MatchCache cache = new MatchCache(50);
+        for (int rounds = 0; rounds < 1000; rounds++)
+            cache.put(0, 0, 0, rounds, new float[3]);
+        assertEquals(50, cache.size());
+        // The newest entry is never the one evicted
+        assertNotNull(cache.get(0, 0, 0, 999));
+    }
+
+    @Test
+    void servesThreadsConcurrently() throws Exception {
+        MatchCache cache = new MatchCache(MatchCache.DEFAULT_CAPACITY);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++)
+                tasks.add(() -> {
+                    for (int i = 0; i < 18; i++)
+                        for (int rounds = 90; rounds <= 110; rounds++) {
+                            if (cache.get(i, i, i, rounds) == null)
+                                cache.put(i, i, i, rounds, new float[] { i, rounds, 0 });
+                            assertEquals((float) rounds, cache.get(i, i, i, rounds)[1]);
+                        }
+                    return null;
+                });
+            // get() rethrows an assertion failed on a worker
+            for (Future<Void> done : threads.invokeAll(tasks))
+                done.get();
+        } finally {
+            threads.shutdown();
+        }
+        assertEquals(18 * 21, cache.size());
+    }
+}
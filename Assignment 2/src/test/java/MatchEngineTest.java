@@ -0,0 +1,74 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class MatchEngineTest {
+    static final StrategyRegistry.Roster ROSTER = Strategies.standard().roster(null);
+
+    // Roster indices of the deterministic strategies, whose matches can be
+    // summed up from a cycle
+    static int[] deterministic() {
+        List<Integer> found = new ArrayList<>();
+        for (int w = 0; w < ROSTER.size(); w++)
+            if (ROSTER.makePlayer(w).isDeterministic())
+                found.add(w);
+        return found.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    static MatchEngine engine(boolean detectCycles, int capacity) {
+        MatchEngine engine = new MatchEngine(ThreePrisonersDilemma.payoff, capacity);
+        engine.detectCycles = detectCycles;
+        engine.tracing = true;
+        return engine;
+    }
+
+    @Test
+    void cycleSumsEqualPlainSimulation() {
+        int[] players = deterministic();
+        MatchEngine detecting = engine(true, 1000), simulating = engine(false, 1000);
+        for (int i : players)
+            for (int j : players)
+                for (int k : players)
+                    for (int rounds : new int[] { 1, 90, 97, 110, 1000 }) {
+                        String match = ROSTER.names()[i] + ", " + ROSTER.names()[j] + ", " + ROSTER.names()[k]
+                                + " for " + rounds + " rounds";
+                        float[] detected = detecting.scoresOfMatch(ROSTER.makePlayer(i), ROSTER.makePlayer(j),
+                                ROSTER.makePlayer(k), rounds);
+                        float[] simulated = simulating.scoresOfMatch(ROSTER.makePlayer(i), ROSTER.makePlayer(j),
+                                ROSTER.makePlayer(k), rounds);
+                        assertArrayEquals(simulated, detected, match);
+                        assertArrayEquals(simulating.trace(), detecting.trace(), match);
+                    }
+    }
+
+    @Test
+    void repeatedMatchesOnOneEngineAgree() {
+        // The seen-state table is reused through stamps, so a match must not
+        // see the states of the one before
+        int[] players = deterministic();
+        MatchEngine engine = engine(true, MatchEngine.DEFAULT_CAPACITY);
+        MatchEngine fresh = engine(false, MatchEngine.DEFAULT_CAPACITY);
+        for (int repeat = 0; repeat < 3; repeat++)
+            for (int i : players)
+                for (int j : players) {
+                    int k = players[(i + j) % players.length];
+                    assertArrayEquals(
+                            fresh.scoresOfMatch(ROSTER.makePlayer(i), ROSTER.makePlayer(j), ROSTER.makePlayer(k), 100),
+                            engine.scoresOfMatch(ROSTER.makePlayer(i), ROSTER.makePlayer(j), ROSTER.makePlayer(k), 100));
+                }
+    }
+
+    @Test
+    void scoresAreAveragePayoffsPerRound() {
+        MatchEngine engine = engine(true, MatchEngine.DEFAULT_CAPACITY);
+        float[] scores = engine.scoresOfMatch(new Strategies.NicePlayer(), new Strategies.NicePlayer(),
+                new Strategies.NastyPlayer(), 95);
+        assertEquals(3f, scores[0]);
+        assertEquals(3f, scores[1]);
+        assertEquals(8f, scores[2]);
+    }
+}
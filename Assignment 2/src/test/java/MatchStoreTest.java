@@ -0,0 +1,91 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MatchStoreTest {
+    static final StrategyRegistry.Roster ROSTER = Strategies.standard().roster("NicePlayer,NastyPlayer,RandomPlayer,"
+            + "TolerantPlayer,PavlovPlayer");
+    static final TournamentExecutor EXECUTOR = new TournamentExecutor(ROSTER.size(), ROSTER,
+            ThreePrisonersDilemma.payoff, 1, 0);
+
+    @TempDir
+    File directory;
+
+    static TournamentExecutor.Results experiment(long seed, int experimentNum) {
+        return EXECUTOR.run(Rng.experimentSeed(seed, experimentNum));
+    }
+
+    // Checks that the store holds exactly the given experiments, in order
+    static void assertHolds(MatchStore store, long seed, int experiments) {
+        assertEquals(experiments, store.written);
+        assertEquals((long) experiments * EXECUTOR.tripleCount(), store.rows());
+        long row = 0;
+        for (int e = 1; e <= experiments; e++) {
+            TournamentExecutor.Results results = experiment(seed, e);
+            for (int t = 0; t < results.size(); t++, row++) {
+                assertEquals(e, store.experiment(row));
+                assertEquals(results.first[t], store.first(row));
+                assertEquals(results.second[t], store.second(row));
+                assertEquals(results.third[t], store.third(row));
+                assertEquals(results.rounds[t], store.rounds(row));
+                for (int seat = 0; seat < 3; seat++)
+                    assertEquals(results.score(t, seat), store.score(row, seat));
+            }
+        }
+    }
+
+    String write(long seed, int from, int to, int resumeAfter) throws IOException {
+        String path = new File(directory, "match_store.bin").getPath();
+        try (MatchStore store = MatchStore.create(path, ROSTER.names(), seed, EXECUTOR.tripleCount(), resumeAfter)) {
+            for (int e = from; e <= to; e++)
+                store.experiment(e, experiment(seed, e));
+        }
+        return path;
+    }
+
+    @Test
+    void readsBackEveryMatch() throws IOException {
+        String path = write(7, 1, 3, 0);
+        try (MatchStore store = MatchStore.open(path)) {
+            assertEquals(7, store.seed);
+            assertArrayEquals(ROSTER.names(), store.names);
+            assertHolds(store, 7, 3);
+        }
+        // The file grows by one block per experiment
+        long blockBytes = (long) EXECUTOR.tripleCount() * (4 + 3 * 4 + 4 * 2);
+        assertEquals(MatchStore.DATA_START + 3 * blockBytes, new File(path).length());
+    }
+
+    @Test
+    void resumesAfterTheCheckpointedExperiments() throws IOException {
+        write(7, 1, 4, 0);
+        // Experiments 3 and 4 were played after the checkpoint and are dropped
+        String path = write(7, 3, 5, 2);
+        try (MatchStore store = MatchStore.open(path)) {
+            assertHolds(store, 7, 5);
+        }
+    }
+
+    @Test
+    void replacesStoresOfOtherSweepsAndUnreadableFiles() throws IOException {
+        // A store of another seed is started afresh, from experiment 1
+        write(8, 1, 2, 0);
+        String path = write(7, 1, 0, 2);
+        try (MatchStore store = MatchStore.open(path)) {
+            assertEquals(7, store.seed);
+            assertEquals(0, store.written);
+        }
+
+        Files.write(new File(path).toPath(), new byte[] { 1, 2, 3, 4, 5, 6, 7 });
+        write(7, 1, 1, 2);
+        try (MatchStore store = MatchStore.open(path)) {
+            assertHolds(store, 7, 1);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class MoveTracesTest {
+    static final StrategyRegistry.Roster ROSTER = MatchEngineTest.ROSTER;
+
+    static TournamentExecutor tracingExecutor(boolean detectCycles) {
+        TournamentExecutor executor = new TournamentExecutor(ROSTER.size(), ROSTER, ThreePrisonersDilemma.payoff, 1,
+                MatchCache.DEFAULT_CAPACITY);
+        executor.trace = true;
+        // A sequential executor plays on the calling thread's engine
+        executor.engines.get().detectCycles = detectCycles;
+        return executor;
+    }
+
+    @Test
+    void runsSplitAtMaxRun() {
+        for (int rounds : new int[] { 1, 31, 32, 33, 64, 65, 110 }) {
+            int[] moves = new int[rounds];
+            Arrays.fill(moves, 5);
+            byte[] runs = MoveTraces.encode(moves, rounds);
+            assertEquals((rounds + MoveTraces.MAX_RUN - 1) / MoveTraces.MAX_RUN, runs.length, rounds + " rounds");
+            assertArrayEquals(moves, MoveTraces.decode(runs));
+        }
+    }
+
+    @Test
+    void decodesWhatWasEncoded() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int match = 0; match < 200; match++) {
+            int rounds = 1 + random.nextInt(110);
+            int[] moves = new int[rounds];
+            // Runs of random symbols and lengths, up to past MAX_RUN
+            for (int r = 0; r < rounds;) {
+                int symbol = random.nextInt(8), length = 1 + random.nextInt(40);
+                for (; length > 0 && r < rounds; length--)
+                    moves[r++] = symbol;
+            }
+            assertArrayEquals(moves, MoveTraces.decode(MoveTraces.encode(moves, rounds)));
+        }
+    }
+
+    @Test
+    void tracesFillInTheRoundsOfDetectedCycles() {
+        TournamentExecutor detecting = tracingExecutor(true), simulating = tracingExecutor(false);
+        int[][][] payoff = ThreePrisonersDilemma.payoff;
+        for (long seed = 1; seed <= 2; seed++) {
+            TournamentExecutor.Results traced = detecting.run(seed), plain = simulating.run(seed);
+            for (int t = 0; t < traced.size(); t++) {
+                int[] moves = MoveTraces.decode(traced.traces[t]);
+                assertArrayEquals(MoveTraces.decode(plain.traces[t]), moves, "triple " + t);
+                assertEquals(traced.rounds[t], moves.length);
+
+                // The moves give the match's scores
+                int[] total = new int[3];
+                for (int move : moves) {
+                    int a = move >>> 2, b = move >>> 1 & 1, c = move & 1;
+                    total[0] += payoff[a][b][c];
+                    total[1] += payoff[b][c][a];
+                    total[2] += payoff[c][a][b];
+                }
+                for (int seat = 0; seat < 3; seat++)
+                    assertEquals((float) total[seat] / moves.length, traced.score(t, seat));
+            }
+        }
+    }
+}
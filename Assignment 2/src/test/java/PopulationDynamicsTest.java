@@ -0,0 +1,91 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class PopulationDynamicsTest {
+    // Random payoffs that, like those of PayoffTensor.compute, do not depend
+    // on the order of the two opponents
+    static PayoffTensor randomTensor(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] values = new double[size * size * size];
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+                for (int k = j; k < size; k++) {
+                    double value = 1 + 7 * random.nextDouble();
+                    values[(i * size + j) * size + k] = value;
+                    values[(i * size + k) * size + j] = value;
+                }
+        return new PayoffTensor(size, values);
+    }
+
+    // Fitness of an individual of strategy i, averaged over every ordered
+    // pair of two distinct other individuals
+    static double bruteForceFitness(PayoffTensor tensor, int[] counts, int i) {
+        int total = 0;
+        for (int count : counts)
+            total += count;
+        int[] strategyOf = new int[total];
+        for (int s = 0, a = 0; s < counts.length; s++)
+            for (int c = 0; c < counts[s]; c++)
+                strategyOf[a++] = s;
+        int self = 0;
+        while (strategyOf[self] != i)
+            self++;
+        double sum = 0;
+        int pairs = 0;
+        for (int a = 0; a < total; a++)
+            for (int b = 0; b < total; b++)
+                if (a != self && b != self && a != b) {
+                    sum += tensor.get(i, strategyOf[a], strategyOf[b]);
+                    pairs++;
+                }
+        return sum / pairs;
+    }
+
+    @Test
+    void moranFitnessDrawsTwoDistinctOtherIndividuals() {
+        PayoffTensor tensor = randomTensor(4, 1);
+        int[][] populations = { { 2, 3, 1, 4 }, { 1, 1, 1, 0 }, { 5, 0, 0, 2 }, { 3, 0, 0, 0 }, { 1, 2, 0, 0 } };
+        for (int[] counts : populations) {
+            PopulationDynamics.Moran moran = new PopulationDynamics.Moran(tensor, counts, 0);
+            double[] fitness = new double[counts.length];
+            moran.fitness(fitness);
+            for (int i = 0; i < counts.length; i++)
+                if (counts[i] > 0)
+                    assertEquals(bruteForceFitness(tensor, counts, i), fitness[i], 1e-9);
+        }
+    }
+
+    @Test
+    void moranKeepsThePopulationSizeUntilFixation() {
+        PopulationDynamics.Moran moran = new PopulationDynamics.Moran(randomTensor(3, 2), new int[] { 4, 3, 3 }, 5);
+        for (int step = 0; step < 100000 && !moran.fixated(); step++) {
+            moran.step();
+            int total = 0;
+            for (int count : moran.counts) {
+                assertTrue(count >= 0);
+                total += count;
+            }
+            assertEquals(10, total);
+        }
+        assertTrue(moran.fixated());
+    }
+
+    @Test
+    void replicatorSharesStayADistribution() {
+        PayoffTensor tensor = randomTensor(5, 3);
+        double[] shares = { 0.1, 0.2, 0.3, 0.15, 0.25 };
+        for (int generation = 0; generation < 200; generation++) {
+            shares = PopulationDynamics.replicatorStep(tensor, shares);
+            double sum = 0;
+            for (double share : shares) {
+                assertTrue(share > 0);
+                sum += share;
+            }
+            assertEquals(1, sum, 1e-9);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class StateMachineTest {
+    static final StrategyRegistry.Roster ROSTER = MatchEngineTest.ROSTER;
+    static final GroupPayoff PAYOFF = GroupPayoff.of(ThreePrisonersDilemma.payoff);
+
+    static StateMachine compile(int which) {
+        return StateMachine.compile(() -> ROSTER.makePlayer(which), PAYOFF);
+    }
+
+    // Roster indices of the strategies that compile; TolerantPlayer, for one,
+    // counts without bound and is left to the players' engine
+    static int[] compilable() {
+        return Arrays.stream(MatchEngineTest.deterministic()).filter(w -> compile(w) != null).toArray();
+    }
+
+    @Test
+    void compiledStrategiesPlayLikeThePlayers() {
+        SplittableRandom random = new SplittableRandom(9);
+        int[] players = compilable();
+        assertTrue(players.length >= 10);
+        for (int w : players) {
+            StateMachine machine = compile(w);
+            for (int game = 0; game < 20; game++) {
+                // Opponents that mostly repeat themselves, so that long
+                // cooperative and defecting runs are covered as well
+                Player player = ROSTER.makePlayer(w);
+                int rounds = 200;
+                BitHistory mine = new BitHistory(rounds), opp1 = new BitHistory(rounds), opp2 = new BitHistory(rounds);
+                player.bind(mine, opp1, opp2);
+                player.bind(PAYOFF);
+                int state = 0, opponents = random.nextInt(4);
+                for (int n = 0; n < rounds; n++) {
+                    if (random.nextInt(4) == 0)
+                        opponents = random.nextInt(4);
+                    int move = StateMachine.playRound(player, n, opponents, mine, opp1, opp2);
+                    assertEquals(move, machine.action[state], ROSTER.names()[w] + " in round " + n);
+                    state = machine.next[4 * state + opponents];
+                }
+            }
+        }
+    }
+
+    @Test
+    void compiledMatchesScoreLikeSimulatedOnes() {
+        int[] players = compilable();
+        StateMachine[] machines = new StateMachine[ROSTER.size()];
+        for (int w : players)
+            machines[w] = compile(w);
+        for (boolean detectCycles : new boolean[] { false, true }) {
+            MatchEngine engine = MatchEngineTest.engine(detectCycles, MatchEngine.DEFAULT_CAPACITY);
+            for (int i : players)
+                for (int j : players)
+                    for (int k : players)
+                        for (int rounds = 90; rounds <= 110; rounds += 5) {
+                            float[] simulated = engine.scoresOfMatch(ROSTER.makePlayer(i), ROSTER.makePlayer(j),
+                                    ROSTER.makePlayer(k), rounds);
+                            byte[] trace = engine.trace();
+                            float[] compiled = engine.scoresOfMatch(machines[i], machines[j], machines[k], rounds);
+                            String match = ROSTER.names()[i] + ", " + ROSTER.names()[j] + ", " + ROSTER.names()[k];
+                            assertArrayEquals(simulated, compiled, match);
+                            assertArrayEquals(trace, engine.trace(), match);
+                        }
+        }
+    }
+
+    @Test
+    void randomStrategiesAreNotCompiled() {
+        assertNull(StateMachine.compile(Strategies.RandomPlayer::new, PAYOFF));
+        assertNull(StateMachine.compile(Strategies.JossPlayer::new, PAYOFF));
+    }
+
+    @Test
+    void copiesOfOneStrategyCompileAlike() {
+        StateMachine nasty = StateMachine.compile(Strategies.NastyPlayer::new, PAYOFF);
+        for (int action : nasty.action)
+            assertEquals(1, action);
+        StateMachine named = StateMachine.compile(() -> new Strategies.NamedNastyPlayer("NastyPlayer1"), PAYOFF);
+        assertArrayEquals(nasty.action, named.action);
+        assertArrayEquals(nasty.next, named.next);
+    }
+}
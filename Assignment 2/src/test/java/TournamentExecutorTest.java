@@ -0,0 +1,47 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TournamentExecutorTest {
+    // Results of playing every triple on its own, sharing nothing
+    static TournamentExecutor.Results playEveryTriple(TournamentExecutor executor, long seed) {
+        TournamentExecutor.Results results = new TournamentExecutor.Results(executor, seed);
+        executor.play(new MatchEngine(ThreePrisonersDilemma.payoff), results, null, 0, executor.tripleCount());
+        return results;
+    }
+
+    @Test
+    void sharedMatchesScoreLikeSeparateOnes() {
+        StrategyRegistry.Roster roster = Strategies.defect().roster(null);
+        for (int parallelism : new int[] { 1, 4 }) {
+            TournamentExecutor executor = new TournamentExecutor(roster.size(), roster, ThreePrisonersDilemma.payoff,
+                    parallelism, 0);
+            assertTrue(executor.sharesBehaviours);
+            for (long seed = 1; seed <= 3; seed++) {
+                TournamentExecutor.Results shared = executor.run(seed);
+                TournamentExecutor.Results separate = playEveryTriple(executor, seed);
+                assertArrayEquals(separate.rounds, shared.rounds);
+                assertArrayEquals(separate.scores, shared.scores);
+            }
+        }
+    }
+
+    @Test
+    void sharesOnlyMatchesOfTheSameBehavioursAndRounds() {
+        StrategyRegistry.Roster roster = Strategies.defect().roster(null);
+        TournamentExecutor executor = new TournamentExecutor(roster.size(), roster, ThreePrisonersDilemma.payoff, 1,
+                0);
+        TournamentExecutor.Results results = executor.run(5);
+        int[] source = executor.sources(5);
+        for (int t = 0; t < source.length; t++) {
+            int s = source[t];
+            assertTrue(s <= t);
+            assertEquals(results.rounds[s], results.rounds[t]);
+            assertEquals(executor.behaviour[executor.first[s]], executor.behaviour[executor.first[t]]);
+            assertEquals(executor.behaviour[executor.second[s]], executor.behaviour[executor.second[t]]);
+            assertEquals(executor.behaviour[executor.third[s]], executor.behaviour[executor.third[t]]);
+        }
+    }
+}
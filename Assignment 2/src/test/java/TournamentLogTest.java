@@ -0,0 +1,43 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+class TournamentLogTest {
+    static final StrategyRegistry.Roster ROSTER = MatchStoreTest.ROSTER;
+    static final long SEED = 11;
+
+    // Logs three experiments of the sweep in the given format
+    static void log(TournamentLog.Format format) throws IOException {
+        format.header(SEED, ROSTER.names());
+        for (int e = 1; e <= 3; e++)
+            format.experiment(e, MatchStoreTest.experiment(SEED, e));
+        format.flush();
+    }
+
+    @Test
+    void binaryLogPrintsAsTheTextLog() throws IOException {
+        StringWriter text = new StringWriter();
+        log(new TournamentLog.TextFormat(text, ROSTER.names()));
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        log(new TournamentLog.BinaryFormat(new DataOutputStream(binary)));
+
+        StringWriter printed = new StringWriter();
+        assertTrue(TournamentLog.printText(new ByteArrayInputStream(binary.toByteArray()), printed));
+        assertEquals(text.toString(), printed.toString());
+    }
+
+    @Test
+    void refusesOtherFiles() throws IOException {
+        StringWriter printed = new StringWriter();
+        assertFalse(TournamentLog.printText(new ByteArrayInputStream(new byte[] { 'S', 'e', 'e', 'd' }), printed));
+        assertEquals("", printed.toString());
+    }
+}